@@ -0,0 +1,74 @@
+package com.xm.crypto.investment.cache;
+
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import com.xm.crypto.investment.support.PriceFileGenerator;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Measures deserializing cached responses on a cache hit, with either {@code crypto.cache.codec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoDtoRedisSerializerBenchmark {
+
+  @Param({"binary", "jdk"})
+  private String codec;
+
+  @Param({"5", "500", "5000"})
+  private int symbols;
+
+  private RedisSerializer<Object> serializer;
+  private byte[] normalizedList;
+  private byte[] statisticList;
+
+  @Setup
+  public void setUp() {
+    serializer = "jdk".equals(codec) ? new JdkSerializationRedisSerializer() : new CryptoDtoRedisSerializer();
+    var random = new Random(42);
+    var normalized = new CryptoNormalizedListDto().cryptos(new ArrayList<>());
+    var statistics = new CryptoStatisticListDto().cryptos(new ArrayList<>());
+    for (int i = 0; i < symbols; i++) {
+      var symbol = PriceFileGenerator.symbol(i);
+      var min = BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2);
+      var max = min.add(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+      normalized.addCryptosItem(new CryptoNormalizedDto().symbol(symbol)
+        .normalizedPrice(BigDecimal.valueOf(max.subtract(min).doubleValue() / min.doubleValue())));
+      statistics.addCryptosItem(new CryptoStatisticDto().symbol(symbol).min(min).max(max).oldest(min).newest(max));
+    }
+    normalizedList = serializer.serialize(normalized);
+    statisticList = serializer.serialize(statistics);
+  }
+
+  @Benchmark
+  public Object deserializeNormalizedList() {
+    return serializer.deserialize(normalizedList);
+  }
+
+  @Benchmark
+  public Object deserializeStatisticList() {
+    return serializer.deserialize(statisticList);
+  }
+}
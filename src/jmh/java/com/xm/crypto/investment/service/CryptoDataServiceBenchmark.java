@@ -0,0 +1,134 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.cache.CacheTtlPolicy;
+import com.xm.crypto.investment.cache.CryptoCache;
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.repository.CryptoSummarySource;
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import com.xm.crypto.investment.support.PriceFileGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Measures normalizing and summarizing the prices of 5, 500 and 5,000 cryptos on a cache miss.
+ * Summaries come from memory and the cache always misses, so only the work of
+ * {@link CryptoDataService} itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoDataServiceBenchmark {
+
+  private static final LocalDate DATE_FROM = LocalDate.of(2022, 1, 1);
+  private static final LocalDate DATE_TO = LocalDate.of(2022, 1, 31);
+
+  @Param({"5", "500", "5000"})
+  private int symbols;
+
+  private CryptoDataService cryptoDataService;
+  private String symbol;
+
+  @Setup
+  public void setUp() {
+    var summaries = new HashMap<String, CryptoSummaryView>();
+    var random = new Random(42);
+    for (int i = 0; i < symbols; i++) {
+      long min = FixedPointPrice.UNIT + random.nextInt(1_000_000) * FixedPointPrice.UNIT / 100;
+      long max = min + random.nextInt(1_000_000) * FixedPointPrice.UNIT / 100;
+      var symbol = PriceFileGenerator.symbol(i);
+      summaries.put(symbol, new CryptoSummary(symbol, min, max, min, max));
+    }
+    symbol = PriceFileGenerator.symbol(symbols / 2);
+    var symbolRegistry = new SymbolRegistry(null);
+    symbolRegistry.update(summaries.keySet(), true);
+    cryptoDataService = new CryptoDataService(new FixedSummarySource(summaries), new PassThroughCache(),
+      new CacheTtlPolicy(Duration.ofHours(24), Duration.ofMinutes(1), Duration.ofMinutes(5)), new SimpleMeterRegistry(),
+      symbolRegistry);
+  }
+
+  @Benchmark
+  public CryptoNormalizedListDto calculateSortedNormalizedRanges() {
+    return cryptoDataService.getCryptosNormalizedRange(DATE_FROM, DATE_TO);
+  }
+
+  @Benchmark
+  public CryptoStatisticDto calculateCryptoStatisticsByCrypto() {
+    return cryptoDataService.getStatisticsByCrypto(symbol, DATE_FROM, DATE_TO);
+  }
+
+  @Benchmark
+  public CryptoStatisticListDto calculateStatistics() {
+    return cryptoDataService.getStatistics(null, DATE_FROM, DATE_TO);
+  }
+
+  private static final class FixedSummarySource implements CryptoSummarySource {
+
+    private final Map<String, CryptoSummaryView> summaries;
+    private final List<CryptoSummaryView> all;
+
+    private FixedSummarySource(Map<String, CryptoSummaryView> summaries) {
+      this.summaries = summaries;
+      this.all = new ArrayList<>(summaries.values());
+    }
+
+    @Override
+    public List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo) {
+      return all;
+    }
+
+    @Override
+    public Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo) {
+      return Optional.ofNullable(summaries.get(symbol));
+    }
+  }
+
+  /**
+   * Cache that never holds anything, so every call computes its response.
+   */
+  private static final class PassThroughCache extends CryptoCache {
+
+    private PassThroughCache() {
+      super(new RedisTemplate<>(), new SimpleMeterRegistry(), 0, Duration.ZERO, "benchmark",
+        Duration.ZERO, Duration.ZERO);
+    }
+
+    @Override
+    public <T> T getOrLoad(String key, Duration ttl, Supplier<T> loader) {
+      return loader.get();
+    }
+
+    @Override
+    public Object getIfPresent(String key) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.support.PriceFileGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures mapping CSV lines to price batches, from memory and from a price file
+ * read memory-mapped or with positional reads, as {@link CsvFileParserService} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvPriceParserBenchmark {
+
+  private static final int BATCH_SIZE = 10_000;
+  private static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+  @Param({"100000", "1000000"})
+  private int rows;
+
+  private byte[] bytes;
+  private Path directory;
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    var generator = new PriceFileGenerator(1, rows, 60_000L, 42);
+    bytes = generator.toBytes();
+    directory = Files.createTempDirectory("price-files");
+    file = generator.writeFiles(directory).get(0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public long parseInMemory(Blackhole blackhole) throws IOException {
+    return parse(PriceFileContent.of(bytes), blackhole);
+  }
+
+  @Benchmark
+  public long loadMemoryMappedFile(Blackhole blackhole) throws IOException {
+    try (var content = PriceFileContent.open(file, true)) {
+      return parse(content, blackhole);
+    }
+  }
+
+  @Benchmark
+  public long loadFileWithPositionalReads(Blackhole blackhole) throws IOException {
+    try (var content = PriceFileContent.open(file, false)) {
+      return parse(content, blackhole);
+    }
+  }
+
+  private static long parse(PriceFileContent content, Blackhole blackhole) throws IOException {
+    return new CsvPriceParser(BATCH_SIZE, blackhole::consume).parse(content, 0, content.size(), CHUNK_SIZE, true);
+  }
+}
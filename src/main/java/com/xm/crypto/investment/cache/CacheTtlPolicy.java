@@ -0,0 +1,48 @@
+package com.xm.crypto.investment.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides how long a cached response lives in Redis by the date range it was computed for.
+ * Ranges that are over can only change when older prices are ingested, which invalidates
+ * the cache anyway, so they live long. Ranges reaching today or "now" live briefly.
+ */
+@Component
+public class CacheTtlPolicy {
+
+  private final Duration historical;
+  private final Duration current;
+  private final Duration allInterval;
+  private final Clock clock;
+
+  public CacheTtlPolicy(@Value("${crypto.cache.ttl.historical:24h}") Duration historical,
+                        @Value("${crypto.cache.ttl.current:1m}") Duration current,
+                        @Value("${crypto.cache.ttl.all-interval:5m}") Duration allInterval) {
+    this(historical, current, allInterval, Clock.systemUTC());
+  }
+
+  CacheTtlPolicy(Duration historical, Duration current, Duration allInterval, Clock clock) {
+    this.historical = historical;
+    this.current = current;
+    this.allInterval = allInterval;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the time to live of a response for the range [dateFrom, dateTo), a missing
+   * dateTo meaning "now".
+   */
+  public Duration ttlFor(LocalDate dateFrom, LocalDate dateTo) {
+    if (dateFrom == null && dateTo == null) {
+      return allInterval;
+    }
+    if (dateTo == null || dateTo.isAfter(LocalDate.now(clock))) {
+      return current;
+    }
+    return historical;
+  }
+}
@@ -0,0 +1,325 @@
+package com.xm.crypto.investment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xm.crypto.investment.service.PricesIngestedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two-tier cache of computed responses: a bounded in-process near cache in front of Redis.
+ * When prices are ingested the Redis entries are deleted and every replica is told over
+ * a pub/sub channel to drop its near cache.
+ * Concurrent misses of a key are coalesced: within a replica callers wait for one loader, and
+ * across replicas a short Redis lock lets one replica compute while the others poll for its result.
+ * A value whose load overlapped an invalidation is returned to its callers but not cached, as it may have been
+ * computed from the prices the invalidation replaced.
+ */
+@Component
+@Slf4j
+public class CryptoCache implements MessageListener {
+
+  static final List<String> KEY_PATTERNS = List.of("normalized_*", "statistic_*", "statistics_*", "*_all_interval");
+  // lock keys start and end outside KEY_PATTERNS, so invalidation never deletes a lock of a load in flight
+  private static final String LOCK_PREFIX = "lock{";
+  private static final String LOCK_SUFFIX = "}";
+  private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+    "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+  // counts invalidations across replicas, a value computed before one of them must not be written after it
+  static final String EPOCH_KEY = "crypto-cache-epoch";
+  private static final byte[] EPOCH_KEY_BYTES = EPOCH_KEY.getBytes(StandardCharsets.UTF_8);
+  private static final RedisScript<Long> SET_IF_EPOCH = new DefaultRedisScript<>(
+    "if (redis.call('get', KEYS[2]) or '') == ARGV[1] then " +
+      "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 else return 0 end", Long.class);
+  private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+  private final RedisTemplate<String, Object> redisTemplate;
+  private final Cache<String, Object> nearCache;
+  private final ConcurrentMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+  private final String invalidationChannel;
+  private final Duration lockTimeout;
+  private final Duration lockPollInterval;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, Counter> requestCounters = new ConcurrentHashMap<>();
+  // bumped before the near cache is dropped, so a load started earlier can tell its value is stale
+  private final AtomicLong epoch = new AtomicLong();
+
+  public CryptoCache(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+                     @Value("${crypto.cache.near.maximum-size:1000}") long maximumSize,
+                     @Value("${crypto.cache.near.expire-after-write:30s}") Duration expireAfterWrite,
+                     @Value("${crypto.cache.invalidation-channel:crypto-cache-invalidation}") String invalidationChannel,
+                     @Value("${crypto.cache.lock.timeout:5s}") Duration lockTimeout,
+                     @Value("${crypto.cache.lock.poll-interval:50ms}") Duration lockPollInterval) {
+    this.redisTemplate = redisTemplate;
+    this.nearCache = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(expireAfterWrite)
+      .build();
+    this.invalidationChannel = invalidationChannel;
+    this.lockTimeout = lockTimeout;
+    this.lockPollInterval = lockPollInterval;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public String getInvalidationChannel() {
+    return invalidationChannel;
+  }
+
+  /**
+   * Returns the cached value of the key, or computes it with the loader and caches it for ttl.
+   * A caller missing a key that is already being loaded waits for that load instead of running
+   * the loader again, exceptions of the loader are rethrown to all waiting callers.
+   *
+   * @param key    cache key
+   * @param ttl    time to live of a computed value in Redis
+   * @param loader computes the value, must not return null
+   * @return cached or computed value
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getOrLoad(String key, Duration ttl, Supplier<T> loader) {
+    var cached = nearCache.get(key, this::getFromRedis);
+    if (cached != null) {
+      count(key, "hit");
+      return (T) cached;
+    }
+    var load = new CompletableFuture<Object>();
+    var inFlight = loads.putIfAbsent(key, load);
+    if (inFlight != null) {
+      count(key, "coalesced");
+      return (T) await(inFlight);
+    }
+    try {
+      load.complete(loadOnce(key, ttl, loader));
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+    } finally {
+      loads.remove(key, load);
+    }
+    return (T) await(load);
+  }
+
+  /**
+   * Deletes all cached responses, in Redis and in the near caches of all replicas. Loads in flight on any
+   * replica do not cache their values afterwards.
+   */
+  public void invalidateAll() {
+    redisTemplate.execute((RedisCallback<Long>) connection -> connection.incr(EPOCH_KEY_BYTES));
+    var keys = new ArrayList<String>();
+    for (String pattern : KEY_PATTERNS) {
+      keys.addAll(scan(pattern));
+    }
+    if (!keys.isEmpty()) {
+      redisTemplate.delete(keys);
+    }
+    epoch.incrementAndGet();
+    nearCache.invalidateAll();
+    redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+      invalidationChannel.getBytes(StandardCharsets.UTF_8), new byte[0]));
+    log.info("invalidateAll:: Invalidated {} cached responses", keys.size());
+  }
+
+  /**
+   * Runs before other listeners of the event, so they see the cache already emptied,
+   * but after the sealing of price blocks, so no stale block is cached again.
+   */
+  @EventListener(condition = "#event.pricesStored")
+  @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+  public void onPricesIngested(PricesIngestedEvent event) {
+    invalidateAll();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    epoch.incrementAndGet();
+    nearCache.invalidateAll();
+  }
+
+  /**
+   * Returns the cached value of the key, or null, without loading it.
+   */
+  public Object getIfPresent(String key) {
+    return nearCache.get(key, this::getFromRedis);
+  }
+
+  /**
+   * Computes the value while holding the Redis lock of the key. When another replica holds it,
+   * polls Redis for that replica's result until the lock times out, then computes it anyway.
+   */
+  private Object loadOnce(String key, Duration ttl, Supplier<?> loader) {
+    var loaded = nearCache.getIfPresent(key);
+    if (loaded != null) {
+      count(key, "coalesced");
+      return loaded;
+    }
+    var lockKey = lockKey(key);
+    var token = UUID.randomUUID().toString();
+    if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, lockTimeout))) {
+      try {
+        return compute(key, ttl, loader);
+      } finally {
+        redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+      }
+    }
+    long startEpoch = epoch.get();
+    loaded = awaitRemoteLoad(key, lockKey);
+    if (loaded != null) {
+      count(key, "coalesced");
+      putIfCurrent(key, loaded, startEpoch);
+      return loaded;
+    }
+    log.warn("loadOnce:: No value for {} appeared while it was locked, computing it", key);
+    return compute(key, ttl, loader);
+  }
+
+  /**
+   * Computes the value and caches it, unless the cache was invalidated while it was computed: the value may
+   * then be derived from replaced prices, and is only returned to the callers of this load.
+   */
+  @SuppressWarnings("unchecked")
+  private Object compute(String key, Duration ttl, Supplier<?> loader) {
+    count(key, "miss");
+    long startEpoch = epoch.get();
+    var redisEpoch = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(EPOCH_KEY_BYTES));
+    var value = loader.get();
+    if (epoch.get() != startEpoch) {
+      log.debug("compute:: The cache was invalidated while {} was computed, not caching it", key);
+      return value;
+    }
+    Long written;
+    try {
+      var serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+      written = redisTemplate.execute(SET_IF_EPOCH, RedisSerializer.byteArray(), LONG_SERIALIZER,
+        List.of(key, EPOCH_KEY), redisEpoch != null ? redisEpoch : new byte[0], serializer.serialize(value),
+        Long.toString(ttl.toMillis()).getBytes(StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      count(key, "error");
+      throw e;
+    }
+    if (written == null || written == 0) {
+      log.debug("compute:: Another replica invalidated the cache while {} was computed, not caching it", key);
+      return value;
+    }
+    putIfCurrent(key, value, startEpoch);
+    return value;
+  }
+
+  private void putIfCurrent(String key, Object value, long startEpoch) {
+    nearCache.put(key, value);
+    // an invalidation racing the put bumped the epoch before dropping the near cache
+    if (epoch.get() != startEpoch) {
+      nearCache.invalidate(key);
+    }
+  }
+
+  private Object awaitRemoteLoad(String key, String lockKey) {
+    long deadline = System.nanoTime() + lockTimeout.toNanos();
+    try {
+      while (System.nanoTime() < deadline) {
+        Thread.sleep(lockPollInterval.toMillis());
+        var value = getFromRedis(key);
+        if (value != null || !Boolean.TRUE.equals(redisTemplate.hasKey(lockKey))) {
+          return value;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  private static Object await(CompletableFuture<Object> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  static String lockKey(String key) {
+    return LOCK_PREFIX + key + LOCK_SUFFIX;
+  }
+
+  /**
+   * Returns the family of a cache key, the kind of response cached under it, for tagging metrics
+   * without one time series per key.
+   */
+  static String keyFamily(String key) {
+    var separator = key.indexOf('_');
+    var prefix = separator < 0 ? key : key.substring(0, separator);
+    switch (prefix) {
+      case "normalized":
+      case "statistics":
+      case "statistic":
+        return prefix;
+      default:
+        // <SYMBOL>_all_interval
+        return "statistic";
+    }
+  }
+
+  private void count(String key, String result) {
+    var family = keyFamily(key);
+    requestCounters.computeIfAbsent(family + ':' + result, name -> Counter.builder("crypto.cache.requests")
+      .description("Cached response lookups by key family and outcome")
+      .tag("family", family)
+      .tag("result", result)
+      .register(meterRegistry)).increment();
+  }
+
+  /**
+   * Reads an entry from Redis, treating an entry written with another codec as missing.
+   */
+  private Object getFromRedis(String key) {
+    try {
+      return redisTemplate.opsForValue().get(key);
+    } catch (SerializationException e) {
+      count(key, "error");
+      log.warn("getFromRedis:: Ignoring unreadable cache entry {}", key, e);
+      return null;
+    } catch (RuntimeException e) {
+      count(key, "error");
+      throw e;
+    }
+  }
+
+  private List<String> scan(String pattern) {
+    return redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+      var keys = new ArrayList<String>();
+      try (Cursor<byte[]> cursor = connection.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())) {
+        cursor.forEachRemaining(key -> keys.add(new String(key, StandardCharsets.UTF_8)));
+      }
+      return keys;
+    });
+  }
+}
@@ -0,0 +1,199 @@
+package com.xm.crypto.investment.cache;
+
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact binary encoding of the cached response DTOs. A value starts with a type tag followed
+ * by its fields: strings as modified UTF-8, decimals as scale and unscaled two's-complement bytes,
+ * lists as a count. Values of other types fall back to Java serialization.
+ */
+public class CryptoDtoRedisSerializer implements RedisSerializer<Object> {
+
+  private static final byte JDK = 0;
+  private static final byte NORMALIZED_LIST = 1;
+  private static final byte NORMALIZED = 2;
+  private static final byte STATISTIC = 3;
+  private static final byte STATISTIC_LIST = 4;
+
+  private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer();
+
+  @Override
+  public byte[] serialize(Object value) {
+    if (value == null) {
+      return new byte[0];
+    }
+    var bytes = new ByteArrayOutputStream(64);
+    try (var out = new DataOutputStream(bytes)) {
+      if (value instanceof CryptoNormalizedListDto) {
+        var cryptos = ((CryptoNormalizedListDto) value).getCryptos();
+        out.writeByte(NORMALIZED_LIST);
+        writeVarInt(out, cryptos == null ? 0 : cryptos.size() + 1);
+        if (cryptos != null) {
+          for (CryptoNormalizedDto crypto : cryptos) {
+            writeNormalized(out, crypto);
+          }
+        }
+      } else if (value instanceof CryptoNormalizedDto) {
+        out.writeByte(NORMALIZED);
+        writeNormalized(out, (CryptoNormalizedDto) value);
+      } else if (value instanceof CryptoStatisticDto) {
+        out.writeByte(STATISTIC);
+        writeStatistic(out, (CryptoStatisticDto) value);
+      } else if (value instanceof CryptoStatisticListDto) {
+        var cryptos = ((CryptoStatisticListDto) value).getCryptos();
+        out.writeByte(STATISTIC_LIST);
+        writeVarInt(out, cryptos == null ? 0 : cryptos.size() + 1);
+        if (cryptos != null) {
+          for (CryptoStatisticDto crypto : cryptos) {
+            writeStatistic(out, crypto);
+          }
+        }
+      } else {
+        out.writeByte(JDK);
+        out.write(fallback.serialize(value));
+      }
+    } catch (IOException e) {
+      throw new SerializationException("Cannot serialize " + value.getClass().getName(), e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      switch (in.readByte()) {
+        case NORMALIZED_LIST:
+          int count = readVarInt(in) - 1;
+          if (count < 0) {
+            return new CryptoNormalizedListDto().cryptos(null);
+          }
+          var cryptos = new ArrayList<CryptoNormalizedDto>(count);
+          for (int i = 0; i < count; i++) {
+            cryptos.add(readNormalized(in));
+          }
+          return new CryptoNormalizedListDto().cryptos(cryptos);
+        case NORMALIZED:
+          return readNormalized(in);
+        case STATISTIC:
+          return readStatistic(in);
+        case STATISTIC_LIST:
+          int statisticCount = readVarInt(in) - 1;
+          if (statisticCount < 0) {
+            return new CryptoStatisticListDto().cryptos(null);
+          }
+          var statistics = new ArrayList<CryptoStatisticDto>(statisticCount);
+          for (int i = 0; i < statisticCount; i++) {
+            statistics.add(readStatistic(in));
+          }
+          return new CryptoStatisticListDto().cryptos(statistics);
+        case JDK:
+          return fallback.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+        default:
+          throw new SerializationException("Unknown type tag " + bytes[0]);
+      }
+    } catch (IOException e) {
+      throw new SerializationException("Cannot deserialize cached value", e);
+    }
+  }
+
+  private static void writeNormalized(DataOutputStream out, CryptoNormalizedDto crypto) throws IOException {
+    writeString(out, crypto.getSymbol());
+    writeDecimal(out, crypto.getNormalizedPrice());
+  }
+
+  private static CryptoNormalizedDto readNormalized(DataInputStream in) throws IOException {
+    return new CryptoNormalizedDto().symbol(readString(in)).normalizedPrice(readDecimal(in));
+  }
+
+  private static void writeStatistic(DataOutputStream out, CryptoStatisticDto statistic) throws IOException {
+    writeString(out, statistic.getSymbol());
+    writeDecimal(out, statistic.getOldest());
+    writeDecimal(out, statistic.getNewest());
+    writeDecimal(out, statistic.getMin());
+    writeDecimal(out, statistic.getMax());
+  }
+
+  private static CryptoStatisticDto readStatistic(DataInputStream in) throws IOException {
+    return new CryptoStatisticDto()
+      .symbol(readString(in))
+      .oldest(readDecimal(in))
+      .newest(readDecimal(in))
+      .min(readDecimal(in))
+      .max(readDecimal(in));
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /**
+   * Writes a nullable decimal as zigzag-encoded scale + 1 (0 for null) and its unscaled value.
+   */
+  private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+    if (value == null) {
+      writeVarInt(out, 0);
+      return;
+    }
+    int scale = value.scale();
+    writeVarInt(out, ((scale << 1) ^ (scale >> 31)) + 1);
+    var unscaled = value.unscaledValue().toByteArray();
+    writeVarInt(out, unscaled.length);
+    out.write(unscaled);
+  }
+
+  private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+    int zigzag = readVarInt(in) - 1;
+    if (zigzag < 0) {
+      return null;
+    }
+    int scale = (zigzag >>> 1) ^ -(zigzag & 1);
+    var unscaled = new byte[readVarInt(in)];
+    in.readFully(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), scale);
+  }
+
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new SerializationException("Malformed variable-length integer");
+  }
+}
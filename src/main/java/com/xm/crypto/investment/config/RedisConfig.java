@@ -1,11 +1,19 @@
 package com.xm.crypto.investment.config;
 
+import com.xm.crypto.investment.cache.CryptoCache;
+import com.xm.crypto.investment.cache.CryptoDtoRedisSerializer;
+import com.xm.crypto.investment.service.IngestVersion;
+import com.xm.crypto.investment.service.SymbolRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
@@ -18,6 +26,9 @@ public class RedisConfig {
   @Value("${spring.redis.password}")
   private String redisPassword;
 
+  @Value("${crypto.cache.codec:binary}")
+  private String cacheCodec;
+
   @Bean
   public JedisConnectionFactory jedisConnectionFactory() {
     RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
@@ -29,6 +40,25 @@ public class RedisConfig {
   public RedisTemplate<String, Object> redisTemplate() {
     RedisTemplate<String, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(jedisConnectionFactory());
+    // plain string keys, so cached entries can be found by pattern when they are invalidated
+    template.setKeySerializer(new StringRedisSerializer());
+    template.setValueSerializer("jdk".equals(cacheCodec)
+      ? new JdkSerializationRedisSerializer() : new CryptoDtoRedisSerializer());
     return template;
   }
+
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(CryptoCache cryptoCache, SymbolRegistry symbolRegistry,
+                                                                     IngestVersion ingestVersion) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(jedisConnectionFactory());
+    // prices ingested by another replica may bring new cryptos and change the version driving the ETags;
+    // one listener runs the steps in order, so a new version is never served before the near cache is dropped
+    container.addMessageListener((message, pattern) -> {
+      cryptoCache.onMessage(message, pattern);
+      ingestVersion.onMessage(message, pattern);
+      symbolRegistry.onMessage(message, pattern);
+    }, new ChannelTopic(cryptoCache.getInvalidationChannel()));
+    return container;
+  }
 }
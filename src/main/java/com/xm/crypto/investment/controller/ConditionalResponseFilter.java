@@ -0,0 +1,233 @@
+package com.xm.crypto.investment.controller;
+
+import com.xm.crypto.investment.service.IngestVersion;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers conditional GETs of the crypto endpoints from the {@link IngestVersion}: successful responses carry
+ * a strong ETag derived from the version, the path and the query, and a request whose If-None-Match still matches
+ * gets a 304 without reaching the controller, the cache or the database. As ETags are only issued on successful
+ * responses, a match proves the resource exists. Ordered ahead of the bucket4j filter (order
+ * {@code HIGHEST_PRECEDENCE + 10}), so these revalidations use no quota.
+ * If-Modified-Since alone says nothing about the resource, so it is only answered with a 304 once the controller
+ * served a successful response, whose body is then dropped.
+ * The streamed rolling ranges are left out, as are all responses while the version is unknown.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.http.conditional.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class ConditionalResponseFilter extends OncePerRequestFilter {
+
+  private static final String PATH_PREFIX = "/api/v1/cryptos/";
+  private static final String ROLLING_PATH = "/api/v1/cryptos/range/rolling";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final IngestVersion ingestVersion;
+  private final String cacheControl;
+
+  public ConditionalResponseFilter(IngestVersion ingestVersion,
+                                   @Value("${crypto.http.conditional.max-age:0s}") Duration maxAge) {
+    this.ingestVersion = ingestVersion;
+    this.cacheControl = (maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).mustRevalidate())
+      .cachePublic().getHeaderValue();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    var path = request.getRequestURI().substring(request.getContextPath().length());
+    return !"GET".equals(request.getMethod()) || !path.startsWith(PATH_PREFIX) || path.equals(ROLLING_PATH);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    var version = ingestVersion.getCurrent();
+    if (version == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    var etag = etag(version.getId(), request.getRequestURI(), request.getQueryString());
+    long lastModified = version.getLastModified() == null ? -1 : version.getLastModified().toEpochMilli();
+    var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      addValidators(response, etag, lastModified);
+      return;
+    }
+    long ifModifiedSince = ifNoneMatch == null ? ifModifiedSince(request) : -1;
+    filterChain.doFilter(request, new ValidatingResponse(response, etag, lastModified, ifModifiedSince));
+  }
+
+  static String etag(String version, String path, String query) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(version.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(path.getBytes(StandardCharsets.UTF_8));
+      if (query != null) {
+        digest.update((byte) '?');
+        digest.update(query.getBytes(StandardCharsets.UTF_8));
+      }
+      // 128 bits are plenty to tell versions of one resource apart
+      var hash = digest.digest();
+      var etag = new char[34];
+      etag[0] = '"';
+      for (int i = 0; i < 16; i++) {
+        etag[1 + 2 * i] = HEX[(hash[i] >> 4) & 0xF];
+        etag[2 + 2 * i] = HEX[hash[i] & 0xF];
+      }
+      etag[33] = '"';
+      return new String(etag);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Weak comparison of the If-None-Match list with the ETag, as required for GET. A wildcard is not honored,
+   * it would claim a 304 for resources that do not exist.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+      candidate = candidate.trim();
+      if ((candidate.startsWith("W/") ? candidate.substring(2) : candidate).equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long ifModifiedSince(HttpServletRequest request) {
+    try {
+      return request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+
+  private void addValidators(HttpServletResponse response, String etag, long lastModified) {
+    response.setHeader(HttpHeaders.ETAG, etag);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    if (lastModified >= 0) {
+      response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+    }
+  }
+
+  /**
+   * Adds the validators when the body of a successful response is written, so errors never carry them, and turns
+   * the response into a 304 without a body when it is not modified since If-Modified-Since.
+   */
+  private class ValidatingResponse extends HttpServletResponseWrapper {
+
+    private final String etag;
+    private final long lastModified;
+    private final long ifModifiedSince;
+    private boolean validated;
+    private boolean notModified;
+
+    ValidatingResponse(HttpServletResponse response, String etag, long lastModified, long ifModifiedSince) {
+      super(response);
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.ifModifiedSince = ifModifiedSince;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      validate();
+      return notModified ? DiscardingOutputStream.INSTANCE : super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      validate();
+      return notModified ? new PrintWriter(Writer.nullWriter()) : super.getWriter();
+    }
+
+    // headers are written before the body, the length of a dropped body must not be sent
+    @Override
+    public void setContentLength(int length) {
+      validate();
+      if (!notModified) {
+        super.setContentLength(length);
+      }
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+      validate();
+      if (!notModified) {
+        super.setContentLengthLong(length);
+      }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      validate();
+      super.flushBuffer();
+    }
+
+    private void validate() {
+      if (!validated && getStatus() == HttpServletResponse.SC_OK && !isCommitted()) {
+        // HTTP dates have a precision of seconds
+        notModified = ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        if (notModified) {
+          setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        addValidators((HttpServletResponse) getResponse(), etag, lastModified);
+      }
+      validated = true;
+    }
+  }
+
+  private static final class DiscardingOutputStream extends ServletOutputStream {
+
+    static final DiscardingOutputStream INSTANCE = new DiscardingOutputStream();
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      // nothing is ever written, so the stream is ready right away
+      try {
+        writeListener.onWritePossible();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+}
@@ -1,12 +1,17 @@
 package com.xm.crypto.investment.controller;
 
+import com.xm.crypto.investment.domain.dto.CryptoDailyLeaderboardListDto;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
 import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import com.xm.crypto.investment.domain.dto.CryptoSymbolListDto;
 import com.xm.crypto.investment.rest.resource.CryptosApi;
 import com.xm.crypto.investment.service.CryptoDataService;
+import com.xm.crypto.investment.service.CryptoLeaderboardService;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class CryptoDataController implements CryptosApi {
   private final CryptoDataService cryptoDataService;
+  private final CryptoLeaderboardService cryptoLeaderboardService;
 
   @Override
   public ResponseEntity<CryptoNormalizedListDto> getNormalizedRange(LocalDate dateFrom, LocalDate dateTo) {
@@ -27,8 +33,24 @@ public class CryptoDataController implements CryptosApi {
     return ResponseEntity.ok(cryptoDataService.getNormalizedRangeHighest(localDate));
   }
 
+  @Override
+  public ResponseEntity<CryptoDailyLeaderboardListDto> getNormalizedRangeHighestByDay(LocalDate dateFrom, LocalDate dateTo,
+                                                                                     Integer top) {
+    return ResponseEntity.ok(cryptoLeaderboardService.getDailyLeaderboard(dateFrom, dateTo, top));
+  }
+
+  @Override
+  public ResponseEntity<CryptoStatisticListDto> getStatistics(List<String> symbols, LocalDate dateFrom, LocalDate dateTo) {
+    return ResponseEntity.ok(cryptoDataService.getStatistics(symbols, dateFrom, dateTo));
+  }
+
   @Override
   public ResponseEntity<CryptoStatisticDto> getStatisticsByCrypto(String crypto, LocalDate dateFrom, LocalDate dateTo) {
     return ResponseEntity.ok(cryptoDataService.getStatisticsByCrypto(crypto, dateFrom, dateTo));
   }
+
+  @Override
+  public ResponseEntity<CryptoSymbolListDto> getSymbols() {
+    return ResponseEntity.ok(cryptoDataService.getSymbols());
+  }
 }
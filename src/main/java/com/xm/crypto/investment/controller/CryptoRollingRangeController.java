@@ -0,0 +1,57 @@
+package com.xm.crypto.investment.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xm.crypto.investment.service.CryptoRollingRangeService;
+import com.xm.crypto.investment.service.RollingNormalizedRange;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams rolling-window normalized ranges as newline-delimited JSON. Written by hand rather than
+ * generated from crypto.yaml, as the generated interface can only return buffered bodies.
+ */
+@RestController
+@RequiredArgsConstructor
+public class CryptoRollingRangeController {
+
+  private final CryptoRollingRangeService cryptoRollingRangeService;
+  private final ObjectMapper objectMapper;
+
+  @GetMapping(value = "/api/v1/cryptos/range/rolling", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> getRollingNormalizedRanges(
+    @RequestParam(value = "symbols", required = false) List<String> symbols,
+    @RequestParam("dateFrom") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+    @RequestParam("dateTo") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+    @RequestParam(value = "windowDays", defaultValue = "30") int windowDays,
+    @RequestParam(value = "stepDays", defaultValue = "1") int stepDays) {
+    // fail before the response is committed, a failing stream can only be cut short
+    cryptoRollingRangeService.validate(dateFrom, dateTo, windowDays, stepDays);
+    StreamingResponseBody body = outputStream -> {
+      var out = new BufferedOutputStream(outputStream);
+      cryptoRollingRangeService.calculateRollingNormalizedRanges(symbols, dateFrom, dateTo, windowDays, stepDays,
+        range -> write(out, range));
+      out.flush();
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  private void write(BufferedOutputStream out, RollingNormalizedRange range) {
+    try {
+      out.write(objectMapper.writeValueAsBytes(range));
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
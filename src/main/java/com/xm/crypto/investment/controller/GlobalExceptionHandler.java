@@ -2,6 +2,7 @@ package com.xm.crypto.investment.controller;
 
 import com.xm.crypto.investment.exception.CryptoNotSupportedException;
 import com.xm.crypto.investment.exception.ErrorResponse;
+import com.xm.crypto.investment.exception.InvalidRangeException;
 import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -40,12 +41,21 @@ public class GlobalExceptionHandler {
   @ResponseStatus(HttpStatus.NOT_FOUND)
   protected ResponseEntity<ErrorResponse> handleCryptoNotSupported(
     Exception ex) {
-    log.warn("Entity not found.", ex);
+    log.debug("Entity not found: {}", ex.getMessage());
     return buildErrorResponse(ex.getMessage(),
       HttpStatus.NOT_FOUND, ErrorResponse.ErrorType.NOT_FOUND, null);
   }
 
 
+  @ExceptionHandler({InvalidRangeException.class})
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  protected ResponseEntity<ErrorResponse> handleInvalidRange(
+    Exception ex) {
+    log.warn("Invalid range: {}", ex.getMessage());
+    return buildErrorResponse(ex.getMessage(),
+      HttpStatus.BAD_REQUEST, ErrorResponse.ErrorType.VALIDATION_ERROR, null);
+  }
+
   @ExceptionHandler(Exception.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public ResponseEntity<ErrorResponse> handleAllUncaughtExceptions(
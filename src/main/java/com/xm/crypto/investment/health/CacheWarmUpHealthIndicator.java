@@ -0,0 +1,34 @@
+package com.xm.crypto.investment.health;
+
+import com.xm.crypto.investment.service.CacheWarmer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service until the cache is warmed up after the startup load, part of the readiness group.
+ * A pod allowed to serve partial data does not wait for warm-up either. When the startup load fails,
+ * warm-up is skipped and readiness is left to the ingest indicator reporting the failure.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmUpHealthIndicator implements HealthIndicator {
+
+  private final CacheWarmer cacheWarmer;
+
+  @Value("${crypto.ingest.readiness.serve-partial:false}")
+  private boolean servePartial;
+
+  @Override
+  public Health health() {
+    if (servePartial || cacheWarmer.isWarmedUp()) {
+      return Health.up().build();
+    }
+    if (cacheWarmer.isSkipped()) {
+      return Health.up().withDetail("cache", "skipped, the startup load failed").build();
+    }
+    return Health.outOfService().withDetail("cache", "warming up").build();
+  }
+}
@@ -0,0 +1,23 @@
+package com.xm.crypto.investment.health;
+
+import com.xm.crypto.investment.service.IngestProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint reporting the progress of the startup load of price files: files, rows and percentage.
+ */
+@Component
+@Endpoint(id = "ingest")
+@RequiredArgsConstructor
+public class IngestEndpoint {
+
+  private final IngestProgress ingestProgress;
+
+  @ReadOperation
+  public IngestProgress.Snapshot progress() {
+    return ingestProgress.snapshot();
+  }
+}
@@ -0,0 +1,42 @@
+package com.xm.crypto.investment.health;
+
+import com.xm.crypto.investment.service.IngestProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group: up once the startup load of price files is complete or, when serving
+ * partial data is enabled, once {@code crypto.ingest.readiness.min-percent} of it is stored.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngestHealthIndicator implements HealthIndicator {
+
+  private final IngestProgress ingestProgress;
+
+  @Value("${crypto.ingest.readiness.serve-partial:false}")
+  private boolean servePartial;
+  @Value("${crypto.ingest.readiness.min-percent:100}")
+  private double minPercent;
+
+  @Override
+  public Health health() {
+    var progress = ingestProgress.snapshot();
+    Health.Builder health;
+    if (progress.getState() == IngestProgress.State.FAILED) {
+      health = Health.down().withDetail("error", progress.getError());
+    } else if (progress.getState() == IngestProgress.State.COMPLETED
+      || servePartial && progress.getState() == IngestProgress.State.RUNNING && progress.getPercent() >= minPercent) {
+      health = Health.up();
+    } else {
+      health = Health.outOfService();
+    }
+    return health
+      .withDetail("state", progress.getState())
+      .withDetail("percent", progress.getPercent())
+      .build();
+  }
+}
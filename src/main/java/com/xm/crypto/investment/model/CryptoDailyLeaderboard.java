@@ -0,0 +1,62 @@
+package com.xm.crypto.investment.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Cryptos with the highest normalized range of a UTC day, derived from {@link CryptoDailySummary}.
+ * Rank 1 is the highest. Rows are always rebuilt, never updated, so they are persisted without
+ * the lookup {@code save} does for entities with assigned ids.
+ */
+@Entity
+@Table(name = "crypto_daily_leaderboard")
+@IdClass(CryptoDailyLeaderboardId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CryptoDailyLeaderboard implements Persistable<CryptoDailyLeaderboardId> {
+  @Id
+  private LocalDate day;
+  @Id
+  @Column(name = "rank")
+  private int rank;
+
+  private String symbol;
+  @Column(name = "normalized_price", columnDefinition = "numeric")
+  private BigDecimal normalizedPrice;
+
+  @Transient
+  private boolean persisted;
+
+  public CryptoDailyLeaderboard(LocalDate day, int rank, String symbol, BigDecimal normalizedPrice) {
+    this(day, rank, symbol, normalizedPrice, false);
+  }
+
+  @Override
+  public CryptoDailyLeaderboardId getId() {
+    return new CryptoDailyLeaderboardId(day, rank);
+  }
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    persisted = true;
+  }
+}
@@ -0,0 +1,15 @@
+package com.xm.crypto.investment.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CryptoDailyLeaderboardId implements Serializable {
+  private LocalDate day;
+  private int rank;
+}
@@ -0,0 +1,44 @@
+package com.xm.crypto.investment.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Daily OHLC rollup of {@link CryptoData}, one row per crypto and UTC day.
+ */
+@Entity
+@Table(name = "crypto_daily_summary")
+@IdClass(CryptoDailySummaryId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CryptoDailySummary {
+  @Id
+  private String symbol;
+  @Id
+  private LocalDate day;
+
+  @Column(name = "open_price", precision = 27, scale = FixedPointPrice.SCALE)
+  private BigDecimal openPrice;
+  @Column(name = "high_price", precision = 27, scale = FixedPointPrice.SCALE)
+  private BigDecimal highPrice;
+  @Column(name = "low_price", precision = 27, scale = FixedPointPrice.SCALE)
+  private BigDecimal lowPrice;
+  @Column(name = "close_price", precision = 27, scale = FixedPointPrice.SCALE)
+  private BigDecimal closePrice;
+  @Column(name = "open_time")
+  private LocalDateTime openTime;
+  @Column(name = "close_time")
+  private LocalDateTime closeTime;
+  @Column(name = "tick_count")
+  private long tickCount;
+}
@@ -8,12 +8,14 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "crypto_data")
+@Table(name = "crypto_data", uniqueConstraints = @UniqueConstraint(
+  name = "crypto_data_symbol_date_time_key", columnNames = {"symbol", "date_time"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,5 +27,6 @@ public class CryptoData {
   @Column(name = "date_time")
   private LocalDateTime dateTime;
   private String symbol;
+  @Column(precision = 27, scale = FixedPointPrice.SCALE)
   private BigDecimal price;
 }
@@ -0,0 +1,63 @@
+package com.xm.crypto.investment.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices are handled internally as longs counting 10^-8 units (e.g. satoshis), from parsing to
+ * min/max computations, and only turned into {@link BigDecimal} at the API boundary. A long of
+ * 10^-8 units holds prices up to about 92 billion, which no crypto is anywhere near.
+ */
+public final class FixedPointPrice {
+
+  public static final int SCALE = 8;
+  public static final long UNIT = 100_000_000L;
+
+  private FixedPointPrice() {
+  }
+
+  /**
+   * Converts a fixed-point price to its shortest decimal form with at least one fraction digit,
+   * the form {@code BigDecimal.valueOf(double)} gives, e.g. 46813.21 or 0.5.
+   */
+  public static BigDecimal toBigDecimal(long price) {
+    var value = BigDecimal.valueOf(price, SCALE).stripTrailingZeros();
+    return value.scale() < 1 ? value.setScale(1, RoundingMode.UNNECESSARY) : value;
+  }
+
+  /**
+   * Converts a decimal to a fixed-point price, rounding half-even beyond 8 fraction digits.
+   *
+   * @throws ArithmeticException if the price does not fit in a long
+   */
+  public static long fromBigDecimal(BigDecimal price) {
+    return price.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Appends the plain decimal form of a fixed-point price without trailing fraction zeros.
+   */
+  public static StringBuilder appendTo(StringBuilder builder, long price) {
+    if (price < 0) {
+      builder.append('-');
+    }
+    long units = Math.abs(price);
+    builder.append(units / UNIT);
+    long fraction = units % UNIT;
+    if (fraction != 0) {
+      builder.append('.');
+      int digits = SCALE;
+      while (fraction % 10 == 0) {
+        fraction /= 10;
+        digits--;
+      }
+      for (long limit = 10; digits > 1; digits--, limit *= 10) {
+        if (fraction < limit) {
+          builder.append('0');
+        }
+      }
+      builder.append(fraction);
+    }
+    return builder;
+  }
+}
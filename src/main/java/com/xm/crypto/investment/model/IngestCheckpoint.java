@@ -0,0 +1,31 @@
+package com.xm.crypto.investment.model;
+
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ingestion progress of a price file: every byte before {@code byteOffset} has been stored.
+ * The fingerprint identifies that prefix, so a restart can tell an appended file from a rewritten one.
+ * The update time is UTC, and only changes when the offset moves.
+ */
+@Entity
+@Table(name = "crypto_ingest_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestCheckpoint {
+  @Id
+  @Column(name = "file_name")
+  private String fileName;
+  @Column(name = "byte_offset")
+  private long byteOffset;
+  private String fingerprint;
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -0,0 +1,73 @@
+package com.xm.crypto.investment.model;
+
+/**
+ * Fixed-capacity columnar batch of parsed prices handed from the CSV parser to the ingestion sinks.
+ * Timestamps are epoch millis (UTC), symbols are shared String instances and prices are
+ * {@link FixedPointPrice fixed-point} longs.
+ */
+public final class PriceBatch {
+
+  private final long[] timestamps;
+  private final String[] symbols;
+  private final long[] prices;
+  private int size;
+
+  public PriceBatch(int capacity) {
+    timestamps = new long[capacity];
+    symbols = new String[capacity];
+    prices = new long[capacity];
+  }
+
+  public void add(long timestamp, String symbol, long price) {
+    timestamps[size] = timestamp;
+    symbols[size] = symbol;
+    prices[size++] = price;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size == timestamps.length;
+  }
+
+  public long getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  public String getSymbol(int index) {
+    return symbols[index];
+  }
+
+  public long getPrice(int index) {
+    return prices[index];
+  }
+
+  /**
+   * Calls the consumer for every run of consecutive rows sharing the same symbol.
+   */
+  public void forEachSymbolRun(SymbolRunConsumer consumer) {
+    int runStart = 0;
+    for (int i = 1; i <= size; i++) {
+      if (i == size || !symbols[i].equals(symbols[runStart])) {
+        consumer.accept(symbols[runStart], runStart, i);
+        runStart = i;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  public interface SymbolRunConsumer {
+    /**
+     * @param symbol crypto symbol of the run
+     * @param from   index of the first row of the run
+     * @param to     index after the last row of the run
+     */
+    void accept(String symbol, int from, int to);
+  }
+}
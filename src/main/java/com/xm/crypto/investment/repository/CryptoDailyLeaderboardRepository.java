@@ -0,0 +1,21 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.model.CryptoDailyLeaderboard;
+import com.xm.crypto.investment.model.CryptoDailyLeaderboardId;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CryptoDailyLeaderboardRepository extends JpaRepository<CryptoDailyLeaderboard, CryptoDailyLeaderboardId> {
+
+  List<CryptoDailyLeaderboard> findByDayBetweenAndRankLessThanEqualOrderByDayAscRankAsc(
+    LocalDate dayFrom, LocalDate dayTo, int rank);
+
+  @Modifying
+  @Query("DELETE FROM CryptoDailyLeaderboard l WHERE l.day BETWEEN ?1 AND ?2")
+  int deleteDays(LocalDate dayFrom, LocalDate dayTo);
+}
@@ -0,0 +1,81 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.model.CryptoDailySummary;
+import com.xm.crypto.investment.model.CryptoDailySummaryId;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CryptoDailySummaryRepository extends JpaRepository<CryptoDailySummary, CryptoDailySummaryId> {
+
+  List<CryptoDailySummary> findByDayBetween(LocalDate dayFrom, LocalDate dayTo);
+
+  @Query("SELECT MAX(s.day) FROM CryptoDailySummary s")
+  Optional<LocalDate> findLatestDay();
+
+  /**
+   * Returns the symbol of every crypto having prices, sorted. Skips from one symbol to the next on the
+   * (symbol, day) primary key, so the cost grows with the number of cryptos rather than of their days.
+   */
+  @Query(value = "WITH RECURSIVE symbols AS (" +
+    "(SELECT symbol FROM crypto_daily_summary ORDER BY symbol LIMIT 1) " +
+    "UNION ALL " +
+    "SELECT (SELECT s.symbol FROM crypto_daily_summary s WHERE s.symbol > symbols.symbol ORDER BY s.symbol LIMIT 1) " +
+    "FROM symbols WHERE symbols.symbol IS NOT NULL) " +
+    "SELECT symbol FROM symbols WHERE symbol IS NOT NULL", nativeQuery = true)
+  List<String> findSymbols();
+
+  /**
+   * Recomputes the rollup rows of a crypto for every day touched by [dateFrom, dateTo) from raw prices.
+   */
+  @Modifying
+  @Query(value = "INSERT INTO crypto_daily_summary " +
+    "(symbol, day, open_price, high_price, low_price, close_price, open_time, close_time, tick_count) " +
+    "SELECT symbol, CAST(date_time AS date), " +
+    "(ARRAY_AGG(price ORDER BY date_time ASC))[1], " +
+    "MAX(price), " +
+    "MIN(price), " +
+    "(ARRAY_AGG(price ORDER BY date_time DESC))[1], " +
+    "MIN(date_time), " +
+    "MAX(date_time), " +
+    "COUNT(*) " +
+    "FROM crypto_data " +
+    "WHERE symbol = ?1 AND date_time >= ?2 AND date_time < ?3 " +
+    "GROUP BY symbol, CAST(date_time AS date) " +
+    "ON CONFLICT (symbol, day) DO UPDATE SET " +
+    "open_price = EXCLUDED.open_price, " +
+    "high_price = EXCLUDED.high_price, " +
+    "low_price = EXCLUDED.low_price, " +
+    "close_price = EXCLUDED.close_price, " +
+    "open_time = EXCLUDED.open_time, " +
+    "close_time = EXCLUDED.close_time, " +
+    "tick_count = EXCLUDED.tick_count", nativeQuery = true)
+  int refreshDays(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo);
+
+  @Query(value = "SELECT symbol, " +
+    "CAST(MIN(low_price) * 100000000 AS bigint) AS minPrice, " +
+    "CAST(MAX(high_price) * 100000000 AS bigint) AS maxPrice, " +
+    "CAST((ARRAY_AGG(open_price ORDER BY day ASC))[1] * 100000000 AS bigint) AS oldestPrice, " +
+    "CAST((ARRAY_AGG(close_price ORDER BY day DESC))[1] * 100000000 AS bigint) AS newestPrice " +
+    "FROM crypto_daily_summary " +
+    "WHERE day >= ?1 AND day < ?2 " +
+    "GROUP BY symbol", nativeQuery = true)
+  List<CryptoSummaryView> summarizeDays(LocalDate dayFrom, LocalDate dayTo);
+
+  @Query(value = "SELECT symbol, " +
+    "CAST(MIN(low_price) * 100000000 AS bigint) AS minPrice, " +
+    "CAST(MAX(high_price) * 100000000 AS bigint) AS maxPrice, " +
+    "CAST((ARRAY_AGG(open_price ORDER BY day ASC))[1] * 100000000 AS bigint) AS oldestPrice, " +
+    "CAST((ARRAY_AGG(close_price ORDER BY day DESC))[1] * 100000000 AS bigint) AS newestPrice " +
+    "FROM crypto_daily_summary " +
+    "WHERE symbol = ?1 AND day >= ?2 AND day < ?3 " +
+    "GROUP BY symbol", nativeQuery = true)
+  Optional<CryptoSummaryView> summarizeDays(String symbol, LocalDate dayFrom, LocalDate dayTo);
+}
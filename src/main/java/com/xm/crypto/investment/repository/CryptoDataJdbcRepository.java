@@ -0,0 +1,130 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.model.PriceBatch;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bulk write path for crypto_data bypassing the JPA persistence context.
+ * IDENTITY ids prevent Hibernate from batching inserts, so prices are streamed with
+ * PostgreSQL COPY into a staging table and merged on the (symbol, date_time) natural key,
+ * which makes loading the same rows again a no-op.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoDataJdbcRepository {
+
+  private static final String CREATE_STAGING_SQL =
+    "CREATE TEMPORARY TABLE IF NOT EXISTS crypto_data_staging " +
+      "(date_time timestamp, symbol varchar(255), price numeric(27, 8)) ON COMMIT DELETE ROWS";
+  private static final String COPY_SQL =
+    "COPY crypto_data_staging (date_time, symbol, price) FROM STDIN WITH (FORMAT csv)";
+  private static final String MERGE_SQL =
+    "INSERT INTO crypto_data (date_time, symbol, price) " +
+      "SELECT DISTINCT ON (symbol, date_time) date_time, symbol, price FROM crypto_data_staging " +
+      "ORDER BY symbol, date_time " +
+      "ON CONFLICT (symbol, date_time) DO UPDATE SET price = EXCLUDED.price " +
+      "WHERE crypto_data.price IS DISTINCT FROM EXCLUDED.price";
+  private static final String UPSERT_SQL =
+    "INSERT INTO crypto_data (date_time, symbol, price) VALUES (?, ?, ?) " +
+      "ON CONFLICT (symbol, date_time) DO UPDATE SET price = EXCLUDED.price " +
+      "WHERE crypto_data.price IS DISTINCT FROM EXCLUDED.price";
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Inserts the given prices, or updates the price of rows already stored for the same
+   * crypto and date time, in a single round-trip.
+   *
+   * @param prices prices to store
+   * @return number of inserted or changed rows
+   */
+  @Transactional
+  public long upsertAll(PriceBatch prices) {
+    if (prices.isEmpty()) {
+      return 0;
+    }
+    return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      if (connection.isWrapperFor(PGConnection.class)) {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+          copyManager.copyIn(COPY_SQL, new StringReader(toCsv(prices)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return (long) jdbcTemplate.update(MERGE_SQL);
+      }
+      log.debug("upsertAll:: Connection is not PostgreSQL, falling back to batched upserts");
+      var counts = jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+        @Override
+        public void setValues(PreparedStatement statement, int i) throws SQLException {
+          statement.setObject(1, LocalDateTime.ofInstant(Instant.ofEpochMilli(prices.getTimestamp(i)), ZoneOffset.UTC));
+          statement.setString(2, prices.getSymbol(i));
+          statement.setBigDecimal(3, BigDecimal.valueOf(prices.getPrice(i), FixedPointPrice.SCALE));
+        }
+
+        @Override
+        public int getBatchSize() {
+          return prices.size();
+        }
+      });
+      return (long) Arrays.stream(counts).sum();
+    });
+  }
+
+  private static String toCsv(PriceBatch prices) {
+    var csv = new StringBuilder(prices.size() * 48);
+    long cachedDay = Long.MIN_VALUE;
+    String cachedDate = null;
+    for (int i = 0; i < prices.size(); i++) {
+      long timestamp = prices.getTimestamp(i);
+      long day = Math.floorDiv(timestamp, MILLIS_PER_DAY);
+      if (day != cachedDay) {
+        cachedDay = day;
+        cachedDate = LocalDate.ofEpochDay(day).toString();
+      }
+      csv.append(cachedDate).append(' ');
+      appendTimeOfDay(csv, Math.floorMod(timestamp, MILLIS_PER_DAY));
+      csv.append(',').append(prices.getSymbol(i)).append(',');
+      FixedPointPrice.appendTo(csv, prices.getPrice(i)).append('\n');
+    }
+    return csv.toString();
+  }
+
+  private static void appendTimeOfDay(StringBuilder csv, long millisOfDay) {
+    appendPadded(csv, millisOfDay / 3_600_000, 2).append(':');
+    appendPadded(csv, millisOfDay / 60_000 % 60, 2).append(':');
+    appendPadded(csv, millisOfDay / 1000 % 60, 2).append('.');
+    appendPadded(csv, millisOfDay % 1000, 3);
+  }
+
+  private static StringBuilder appendPadded(StringBuilder csv, long value, int width) {
+    for (long limit = 10; width > 1; width--, limit *= 10) {
+      if (value < limit) {
+        csv.append('0');
+      }
+    }
+    return csv.append(value);
+  }
+}
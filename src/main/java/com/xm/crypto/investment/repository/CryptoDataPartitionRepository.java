@@ -0,0 +1,220 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.model.PriceBatch;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Manages the monthly partitions of crypto_data, named crypto_data_YYYY_MM. A month must have
+ * its partition before prices of it are stored, so partitions are created ahead of the writes.
+ * Months whose partition was detached are not created again: their late prices are rejected, so the
+ * history of a month is never split between an archived table and a new partition.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoDataPartitionRepository {
+
+  private static final String PARTITION_PREFIX = "crypto_data_";
+  private static final String ARCHIVED_SUFFIX = "_archived";
+  private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+  // "cryptopart" in ASCII, serializes partition DDL of all replicas
+  private static final long PARTITION_LOCK_KEY = 0x63727970746F70L;
+  private static final String CHECK_VIOLATION = "23514";
+  private static final List<String> DELETE_DERIVED_SQL = List.of(
+    "DELETE FROM crypto_daily_summary WHERE day < ?",
+    "DELETE FROM crypto_daily_leaderboard WHERE day < ?",
+    "DELETE FROM crypto_price_block WHERE day < ?");
+  private static final String FIND_RETENTION_SQL = "SELECT detached_before, updated_at FROM crypto_data_retention";
+  private static final String SAVE_RETENTION_SQL =
+    "INSERT INTO crypto_data_retention (id, detached_before, updated_at) VALUES (1, ?, ?) " +
+      "ON CONFLICT (id) DO UPDATE SET detached_before = EXCLUDED.detached_before, updated_at = EXCLUDED.updated_at";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Set<YearMonth> knownMonths = ConcurrentHashMap.newKeySet();
+  private final Set<YearMonth> archivedMonths = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Makes sure every month holding a price of the batch has its partition.
+   *
+   * @return the prices of the batch which can be stored, without those of detached months
+   */
+  public PriceBatch ensurePartitions(PriceBatch prices) {
+    if (prices.isEmpty()) {
+      return prices;
+    }
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    for (int i = 0; i < prices.size(); i++) {
+      min = Math.min(min, prices.getTimestamp(i));
+      max = Math.max(max, prices.getTimestamp(i));
+    }
+    var from = toMonth(min);
+    var to = toMonth(max);
+    ensurePartitions(from, to);
+    for (var month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      if (archivedMonths.contains(month)) {
+        return rejectArchived(prices);
+      }
+    }
+    return prices;
+  }
+
+  /**
+   * Makes sure every month of [from, to] has its partition, unless it was detached.
+   */
+  public void ensurePartitions(YearMonth from, YearMonth to) {
+    for (var month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      if (!knownMonths.contains(month) && !archivedMonths.contains(month)) {
+        createPartition(month);
+      }
+    }
+  }
+
+  /**
+   * Forgets the partitions known to exist, so they are looked up again. Called when storing prices failed for
+   * a missing partition, e.g. after another replica detached months this one still knew.
+   */
+  public void refresh() {
+    knownMonths.clear();
+    archivedMonths.clear();
+    log.info("refresh:: Partitions are looked up again");
+  }
+
+  /**
+   * Tells whether storing prices failed as no partition of crypto_data accepts one of them, the only
+   * check violation crypto_data raises.
+   */
+  public static boolean isMissingPartition(DataAccessException e) {
+    var cause = e.getMostSpecificCause();
+    return cause instanceof SQLException && CHECK_VIOLATION.equals(((SQLException) cause).getSQLState());
+  }
+
+  private PriceBatch rejectArchived(PriceBatch prices) {
+    var storable = new PriceBatch(prices.size());
+    for (int i = 0; i < prices.size(); i++) {
+      if (!archivedMonths.contains(toMonth(prices.getTimestamp(i)))) {
+        storable.add(prices.getTimestamp(i), prices.getSymbol(i), prices.getPrice(i));
+      }
+    }
+    log.warn("rejectArchived:: Rejected {} prices of detached months", prices.size() - storable.size());
+    return storable;
+  }
+
+  /**
+   * Detaches the partitions of months before the given one. They are kept as plain tables
+   * named crypto_data_YYYY_MM_archived, to be archived or dropped without touching crypto_data.
+   * The rollup, leaderboard and price block rows of those months are deleted in the same transaction, so no
+   * read backend serves prices the database no longer holds, and the retention feeding the ingest version moves.
+   *
+   * @return number of detached partitions
+   */
+  @Transactional
+  public int detachPartitionsBefore(YearMonth month) {
+    jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PARTITION_LOCK_KEY);
+    int detached = 0;
+    for (String partition : findPartitions()) {
+      var partitionMonth = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+      if (partitionMonth.isBefore(month)) {
+        jdbcTemplate.execute("ALTER TABLE crypto_data DETACH PARTITION " + partition);
+        jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO " + partition + ARCHIVED_SUFFIX);
+        knownMonths.remove(partitionMonth);
+        archivedMonths.add(partitionMonth);
+        detached++;
+      }
+    }
+    if (detached > 0) {
+      var day = month.atDay(1);
+      int derived = 0;
+      for (String sql : DELETE_DERIVED_SQL) {
+        derived += jdbcTemplate.update(sql, day);
+      }
+      jdbcTemplate.update(SAVE_RETENTION_SQL, day, LocalDateTime.now(ZoneOffset.UTC));
+      log.info("detachPartitionsBefore:: Deleted {} rows derived from months before {}", derived, month);
+    }
+    log.info("detachPartitionsBefore:: Detached {} partitions of months before {}", detached, month);
+    return detached;
+  }
+
+  /**
+   * Returns the month before which partitions were detached, if any.
+   */
+  public Optional<Retention> findRetention() {
+    return jdbcTemplate.query(FIND_RETENTION_SQL, (resultSet, i) -> new Retention(
+      resultSet.getObject(1, LocalDate.class), resultSet.getObject(2, LocalDateTime.class))).stream().findFirst();
+  }
+
+  private List<String> findPartitions() {
+    return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+      "JOIN pg_class c ON c.oid = i.inhrelid " +
+      "JOIN pg_class p ON p.oid = i.inhparent " +
+      "WHERE p.relname = 'crypto_data' ORDER BY c.relname", String.class);
+  }
+
+  /**
+   * Creates the partition of the month unless it exists or was detached, holding the partition lock on the
+   * same connection, as concurrent CREATE TABLE IF NOT EXISTS of the same table may fail.
+   */
+  private synchronized void createPartition(YearMonth month) {
+    if (knownMonths.contains(month) || archivedMonths.contains(month)) {
+      return;
+    }
+    var partition = PARTITION_PREFIX + month.format(PARTITION_MONTH);
+    var sql = String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF crypto_data FOR VALUES FROM ('%s') TO ('%s')",
+      partition, month.atDay(1), month.plusMonths(1).atDay(1));
+    boolean archived = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+      try (var statement = connection.createStatement()) {
+        statement.execute("SELECT pg_advisory_lock(" + PARTITION_LOCK_KEY + ")");
+        try {
+          try (var resultSet = statement.executeQuery(
+            "SELECT to_regclass('" + partition + ARCHIVED_SUFFIX + "') IS NOT NULL")) {
+            if (resultSet.next() && resultSet.getBoolean(1)) {
+              return true;
+            }
+          }
+          statement.execute(sql);
+          return false;
+        } finally {
+          statement.execute("SELECT pg_advisory_unlock(" + PARTITION_LOCK_KEY + ")");
+        }
+      }
+    });
+    if (archived) {
+      archivedMonths.add(month);
+      log.warn("createPartition:: The partition of {} was detached, its prices are rejected", month);
+      return;
+    }
+    knownMonths.add(month);
+    log.debug("createPartition:: Made sure the partition of {} exists", month);
+  }
+
+  private static YearMonth toMonth(long epochMillis) {
+    return YearMonth.from(Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+  }
+
+  /**
+   * Month before which partitions were detached, as its first day, and when they were.
+   */
+  @Value
+  public static class Retention {
+    LocalDate detachedBefore;
+    LocalDateTime updatedAt;
+  }
+}
@@ -4,6 +4,7 @@ import com.xm.crypto.investment.model.CryptoData;
 import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,15 +12,30 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CryptoDataRepository extends JpaRepository<CryptoData, Long> {
 
+  /**
+   * Summarizes every crypto between the given date times, prices are projected as fixed-point longs.
+   */
   @Query(value = "SELECT DISTINCT symbol, " +
-    "MIN(price) OVER (PARTITION BY symbol) AS minPrice, " +
-    "MAX(price) OVER (PARTITION BY symbol) AS maxPrice, " +
-    "FIRST_VALUE(price) OVER (PARTITION BY symbol ORDER BY date_time ASC) AS oldestPrice, " +
-    "FIRST_VALUE(price) OVER (PARTITION BY symbol ORDER BY date_time DESC) AS newestPrice " +
+    "CAST(MIN(price) OVER (PARTITION BY symbol) * 100000000 AS bigint) AS minPrice, " +
+    "CAST(MAX(price) OVER (PARTITION BY symbol) * 100000000 AS bigint) AS maxPrice, " +
+    "CAST(FIRST_VALUE(price) OVER (PARTITION BY symbol ORDER BY date_time ASC) * 100000000 AS bigint) AS oldestPrice, " +
+    "CAST(FIRST_VALUE(price) OVER (PARTITION BY symbol ORDER BY date_time DESC) * 100000000 AS bigint) AS newestPrice " +
     "FROM crypto_data " +
     "WHERE date_time BETWEEN ?1 AND ?2 " +
     "GROUP BY symbol, price, date_time", nativeQuery = true)
   List<CryptoSummaryView> calculateCryptosSummary(LocalDateTime dateFrom,
                                                   LocalDateTime dateTo);
 
+  @Query(value = "SELECT symbol, " +
+    "CAST(MIN(price) * 100000000 AS bigint) AS minPrice, " +
+    "CAST(MAX(price) * 100000000 AS bigint) AS maxPrice, " +
+    "CAST((ARRAY_AGG(price ORDER BY date_time ASC))[1] * 100000000 AS bigint) AS oldestPrice, " +
+    "CAST((ARRAY_AGG(price ORDER BY date_time DESC))[1] * 100000000 AS bigint) AS newestPrice " +
+    "FROM crypto_data " +
+    "WHERE symbol = ?1 AND date_time BETWEEN ?2 AND ?3 " +
+    "GROUP BY symbol", nativeQuery = true)
+  Optional<CryptoSummaryView> calculateCryptoSummary(String symbol,
+                                                     LocalDateTime dateFrom,
+                                                     LocalDateTime dateTo);
+
 }
@@ -0,0 +1,170 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.store.PriceBlock;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores one {@link PriceBlock} per crypto and closed day in crypto_price_block, sealed from crypto_data.
+ * The header columns mirror the block header, so blocks covered by a window are read without their data.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoPriceBlockRepository {
+
+  // a day needs sealing when its block is missing or disagrees with the rollup refreshed on ingestion
+  private static final String FIND_UNSEALED_SQL =
+    "SELECT s.symbol, s.day FROM crypto_daily_summary s " +
+      "LEFT JOIN crypto_price_block b ON b.symbol = s.symbol AND b.day = s.day " +
+      "WHERE s.day < ? AND (b.symbol IS NULL OR b.tick_count <> s.tick_count " +
+      "OR b.first_time <> s.open_time OR b.last_time <> s.close_time " +
+      "OR b.min_price <> CAST(s.low_price * 100000000 AS bigint) " +
+      "OR b.max_price <> CAST(s.high_price * 100000000 AS bigint) " +
+      "OR b.first_price <> CAST(s.open_price * 100000000 AS bigint) " +
+      "OR b.last_price <> CAST(s.close_price * 100000000 AS bigint)) " +
+      "ORDER BY s.symbol, s.day";
+  private static final String DAY_PRICES_SQL =
+    "SELECT date_time, CAST(price * 100000000 AS bigint) FROM crypto_data " +
+      "WHERE symbol = ? AND date_time >= ? AND date_time < ? ORDER BY date_time";
+  private static final String UPSERT_SQL =
+    "INSERT INTO crypto_price_block (symbol, day, tick_count, first_time, last_time, " +
+      "min_price, max_price, first_price, last_price, data) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+      "ON CONFLICT (symbol, day) DO UPDATE SET tick_count = EXCLUDED.tick_count, " +
+      "first_time = EXCLUDED.first_time, last_time = EXCLUDED.last_time, " +
+      "min_price = EXCLUDED.min_price, max_price = EXCLUDED.max_price, " +
+      "first_price = EXCLUDED.first_price, last_price = EXCLUDED.last_price, data = EXCLUDED.data";
+  // data is only read for blocks the window cuts through
+  private static final String FIND_SQL =
+    "SELECT symbol, tick_count, first_time, last_time, min_price, max_price, first_price, last_price, " +
+      "CASE WHEN (first_time < ? OR last_time > ?) AND first_time <= ? AND last_time >= ? THEN data END " +
+      "FROM crypto_price_block WHERE day >= ? AND day <= ? AND day < ?";
+
+  private static final String FIND_SEALED_UNTIL_SQL = "SELECT sealed_until FROM crypto_price_block_watermark";
+  // a pass of another replica may have sealed further already
+  private static final String SAVE_SEALED_UNTIL_SQL =
+    "INSERT INTO crypto_price_block_watermark (id, sealed_until) VALUES (1, ?) " +
+      "ON CONFLICT (id) DO UPDATE SET " +
+      "sealed_until = GREATEST(crypto_price_block_watermark.sealed_until, EXCLUDED.sealed_until)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Finds the crypto days before the given day which have no block, or a block older than their prices.
+   */
+  public List<BlockDay> findUnsealedDays(LocalDate dayBefore) {
+    return jdbcTemplate.query(FIND_UNSEALED_SQL,
+      (resultSet, i) -> new BlockDay(resultSet.getString(1), resultSet.getObject(2, LocalDate.class)), dayBefore);
+  }
+
+  /**
+   * Returns the day before which every closed day was sealed by a complete sealing pass, if any.
+   */
+  public Optional<LocalDate> findSealedUntil() {
+    return jdbcTemplate.query(FIND_SEALED_UNTIL_SQL, (resultSet, i) -> resultSet.getObject(1, LocalDate.class))
+      .stream().findFirst();
+  }
+
+  /**
+   * Records that a sealing pass sealed every closed day before the given one.
+   */
+  public void saveSealedUntil(LocalDate dayBefore) {
+    jdbcTemplate.update(SAVE_SEALED_UNTIL_SQL, dayBefore);
+  }
+
+  /**
+   * Encodes the prices of a crypto on a day into its block, replacing the stored one.
+   *
+   * A day without prices in crypto_data, e.g. of a detached partition, keeps its block.
+   *
+   * @return number of prices in the block, 0 if the day has none
+   */
+  @Transactional
+  public int seal(String symbol, LocalDate day) {
+    var dayPrices = new DayPrices();
+    jdbcTemplate.query(DAY_PRICES_SQL, resultSet -> {
+      dayPrices.add(toEpochMilli(resultSet.getTimestamp(1)), resultSet.getLong(2));
+    }, symbol, day.atTime(LocalTime.MIN), day.plusDays(1).atTime(LocalTime.MIN));
+    if (dayPrices.length == 0) {
+      return 0;
+    }
+    var block = PriceBlock.encode(dayPrices.timestamps, dayPrices.prices, dayPrices.length);
+    var bytes = block.toBytes();
+    jdbcTemplate.update(UPSERT_SQL, symbol, day, block.getCount(),
+      toDateTime(block.getFirstTimestamp()), toDateTime(block.getLastTimestamp()),
+      block.getMinPrice(), block.getMaxPrice(), block.getFirstPrice(), block.getLastPrice(), bytes);
+    log.debug("seal:: Sealed {} prices of {} on {} into {} bytes", block.getCount(), symbol, day, bytes.length);
+    return block.getCount();
+  }
+
+  /**
+   * Passes the blocks of days before dayBefore holding prices between the given date times to the consumer,
+   * ordered by crypto and day. Blocks lying entirely inside the window are read from their header only.
+   *
+   * @param symbol crypto symbol, or {@code null} for every crypto
+   */
+  public void findBlocks(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo, LocalDate dayBefore,
+                         BiConsumer<String, PriceBlock> consumer) {
+    var sql = FIND_SQL + (symbol != null ? " AND symbol = ?" : "") + " ORDER BY symbol, day";
+    var parameters = new ArrayList<Object>(Arrays.asList(dateFrom, dateTo, dateTo, dateFrom,
+      dateFrom.toLocalDate(), dateTo.toLocalDate(), dayBefore));
+    if (symbol != null) {
+      parameters.add(symbol);
+    }
+    jdbcTemplate.query(sql, resultSet -> {
+      var data = resultSet.getBytes(9);
+      consumer.accept(resultSet.getString(1), data != null
+        ? PriceBlock.fromBytes(data)
+        : PriceBlock.ofHeader(resultSet.getInt(2), toEpochMilli(resultSet.getTimestamp(3)),
+          toEpochMilli(resultSet.getTimestamp(4)), resultSet.getLong(5), resultSet.getLong(6),
+          resultSet.getLong(7), resultSet.getLong(8)));
+    }, parameters.toArray());
+  }
+
+  private static long toEpochMilli(Timestamp timestamp) {
+    return timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  private static LocalDateTime toDateTime(long epochMillis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+  }
+
+  private static final class DayPrices {
+    private long[] timestamps = new long[1024];
+    private long[] prices = new long[1024];
+    private int length;
+
+    private void add(long timestamp, long price) {
+      if (length == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, length * 2);
+        prices = Arrays.copyOf(prices, length * 2);
+      }
+      timestamps[length] = timestamp;
+      prices[length++] = price;
+    }
+  }
+
+  /**
+   * A crypto and one of its days.
+   */
+  @Value
+  public static class BlockDay {
+    String symbol;
+    LocalDate day;
+  }
+}
@@ -0,0 +1,30 @@
+package com.xm.crypto.investment.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Ordered scan over raw prices, for computations that need every price of a range
+ * rather than its summary.
+ */
+public interface CryptoPriceSource {
+
+  /**
+   * Passes the prices between the given date times (both inclusive) to the consumer,
+   * ordered by symbol and then by time.
+   *
+   * @param symbols  symbols to scan, all symbols when empty
+   * @param dateFrom start of the range
+   * @param dateTo   end of the range
+   * @param consumer receives the prices
+   */
+  void scan(Collection<String> symbols, LocalDateTime dateFrom, LocalDateTime dateTo, PriceConsumer consumer);
+
+  @FunctionalInterface
+  interface PriceConsumer {
+    /**
+     * @param price fixed-point price, see {@link com.xm.crypto.investment.model.FixedPointPrice}
+     */
+    void accept(String symbol, long epochMillis, long price);
+  }
+}
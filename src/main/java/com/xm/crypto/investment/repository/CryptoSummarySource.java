@@ -0,0 +1,32 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read backend answering oldest/newest/min/max summaries per crypto.
+ * The implementation is selected by the {@code crypto.read-backend} property.
+ */
+public interface CryptoSummarySource {
+
+  /**
+   * Summarizes every crypto having prices between the given date times (both inclusive).
+   *
+   * @param dateFrom The start date time for the query
+   * @param dateTo   The end date time for the query
+   * @return one summary per crypto
+   */
+  List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo);
+
+  /**
+   * Summarizes a single crypto having prices between the given date times (both inclusive).
+   *
+   * @param symbol   crypto symbol (e.g BTC)
+   * @param dateFrom The start date time for the query
+   * @param dateTo   The end date time for the query
+   * @return the summary or empty if the crypto has no prices in the window
+   */
+  Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo);
+}
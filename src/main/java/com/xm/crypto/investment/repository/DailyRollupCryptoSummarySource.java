@@ -0,0 +1,60 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read backend folding crypto_daily_summary rows for the whole days of a window.
+ * The part of the window after the last whole day (the instant of midnight of dateTo or
+ * the running day when the window ends now) and windows not starting at midnight
+ * are answered from crypto_data.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.read-backend", havingValue = "daily")
+@RequiredArgsConstructor
+public class DailyRollupCryptoSummarySource implements CryptoSummarySource {
+
+  private final CryptoDailySummaryRepository cryptoDailySummaryRepository;
+  private final CryptoDataRepository cryptoDataRepository;
+
+  @Override
+  public List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var tailFrom = dateTo.toLocalDate().atTime(LocalTime.MIN);
+    if (!isDayAligned(dateFrom) || !dateFrom.isBefore(tailFrom)) {
+      return cryptoDataRepository.calculateCryptosSummary(dateFrom, dateTo);
+    }
+    var summaries = cryptoDailySummaryRepository.summarizeDays(dateFrom.toLocalDate(), tailFrom.toLocalDate())
+      .stream()
+      .collect(Collectors.toMap(CryptoSummaryView::getSymbol, Function.identity(), CryptoSummary::merge,
+        LinkedHashMap::new));
+    cryptoDataRepository.calculateCryptosSummary(tailFrom, dateTo)
+      .forEach(tail -> summaries.merge(tail.getSymbol(), tail, CryptoSummary::merge));
+    return new ArrayList<>(summaries.values());
+  }
+
+  @Override
+  public Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var tailFrom = dateTo.toLocalDate().atTime(LocalTime.MIN);
+    if (!isDayAligned(dateFrom) || !dateFrom.isBefore(tailFrom)) {
+      return cryptoDataRepository.calculateCryptoSummary(symbol, dateFrom, dateTo);
+    }
+    var days = cryptoDailySummaryRepository.summarizeDays(symbol, dateFrom.toLocalDate(), tailFrom.toLocalDate());
+    var tail = cryptoDataRepository.calculateCryptoSummary(symbol, tailFrom, dateTo);
+    return Optional.ofNullable(CryptoSummary.merge(days.orElse(null), tail.orElse(null)));
+  }
+
+  private static boolean isDayAligned(LocalDateTime dateTime) {
+    return dateTime.toLocalTime().equals(LocalTime.MIN);
+  }
+}
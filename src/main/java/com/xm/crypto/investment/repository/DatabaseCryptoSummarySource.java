@@ -0,0 +1,30 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default read backend, aggregates raw prices stored in Postgres.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.read-backend", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabaseCryptoSummarySource implements CryptoSummarySource {
+
+  private final CryptoDataRepository cryptoDataRepository;
+
+  @Override
+  public List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    return cryptoDataRepository.calculateCryptosSummary(dateFrom, dateTo);
+  }
+
+  @Override
+  public Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo) {
+    return cryptoDataRepository.calculateCryptoSummary(symbol, dateFrom, dateTo);
+  }
+}
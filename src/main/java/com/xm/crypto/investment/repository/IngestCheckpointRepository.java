@@ -0,0 +1,9 @@
+package com.xm.crypto.investment.repository;
+
+import com.xm.crypto.investment.model.IngestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestCheckpointRepository extends JpaRepository<IngestCheckpoint, String> {
+}
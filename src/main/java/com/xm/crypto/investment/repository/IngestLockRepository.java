@@ -0,0 +1,118 @@
+package com.xm.crypto.investment.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Cluster-wide lock letting one replica at a time load price files, a session-level PostgreSQL
+ * advisory lock. It is held by a dedicated connection opened outside the pool, which neither retires
+ * nor hands it out, so the lock lives exactly as long as that session and is released when its holder dies.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class IngestLockRepository {
+
+  // "crypto" in ASCII, keeps the key apart from advisory locks of other applications
+  private static final long INGEST_LOCK_KEY = 0x63727970746FL;
+  // a bigint advisory key is split into classid (high half) and objid (low half)
+  private static final String HELD_SQL =
+    "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND pid = pg_backend_pid() AND granted " +
+      "AND ((classid::int8 << 32) | objid::int8) = ? AND objsubid = 1)";
+
+  private final DataSourceProperties dataSourceProperties;
+
+  /**
+   * Waits until no other replica holds the lock, polling for it every pollInterval, and takes it.
+   *
+   * @return the held lock, to be closed once the load is done
+   */
+  public Lock acquire(Duration pollInterval) throws InterruptedException {
+    var connection = openConnection();
+    try {
+      var jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+      boolean waiting = false;
+      while (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_lock(?)", Boolean.class, INGEST_LOCK_KEY))) {
+        if (!waiting) {
+          log.info("acquire:: Another replica is loading price files, waiting for it to finish");
+          waiting = true;
+        }
+        Thread.sleep(pollInterval.toMillis());
+      }
+      return new Lock(connection, jdbcTemplate);
+    } catch (InterruptedException | RuntimeException e) {
+      closeQuietly(connection);
+      throw e;
+    }
+  }
+
+  private Connection openConnection() {
+    try {
+      return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    } catch (SQLException e) {
+      throw new CannotGetJdbcConnectionException("Failed to open the ingest lock connection", e);
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      log.warn("closeQuietly:: Failed to close the ingest lock connection", e);
+    }
+  }
+
+  /**
+   * Held advisory lock, closing it releases the lock and closes its connection.
+   */
+  public static final class Lock implements AutoCloseable {
+
+    private final Connection connection;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Lock(Connection connection, JdbcTemplate jdbcTemplate) {
+      this.connection = connection;
+      this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Checks that the session of the lock is alive and still holds it, before work depending on it is committed.
+     *
+     * @throws IllegalStateException when the lock was lost, e.g. its connection was dropped
+     */
+    public synchronized void verify() {
+      boolean held;
+      try {
+        held = Boolean.TRUE.equals(jdbcTemplate.queryForObject(HELD_SQL, Boolean.class, INGEST_LOCK_KEY));
+      } catch (DataAccessException e) {
+        throw new IllegalStateException("The ingest lock was lost with its connection", e);
+      }
+      if (!held) {
+        throw new IllegalStateException("The ingest lock is no longer held");
+      }
+    }
+
+    @Override
+    public synchronized void close() {
+      try {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, INGEST_LOCK_KEY);
+      } catch (DataAccessException e) {
+        // closing the session releases the lock as well
+        log.warn("close:: Failed to release the ingest lock, closing its connection", e);
+      } finally {
+        closeQuietly(connection);
+      }
+    }
+  }
+}
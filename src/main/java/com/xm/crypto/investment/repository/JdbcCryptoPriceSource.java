@@ -0,0 +1,50 @@
+package com.xm.crypto.investment.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scans crypto_data with a server-side cursor, so a range is never held in memory as a whole.
+ * Used unless prices are served from the in-process store.
+ */
+@Component
+@ConditionalOnExpression("'${crypto.read-backend:database}' != 'memory'")
+@RequiredArgsConstructor
+public class JdbcCryptoPriceSource implements CryptoPriceSource {
+
+  private static final String SCAN_SQL =
+    "SELECT symbol, date_time, CAST(price * 100000000 AS bigint) FROM crypto_data WHERE date_time BETWEEN ? AND ? " +
+      "AND (cardinality(?) = 0 OR symbol = ANY(?)) ORDER BY symbol, date_time";
+  private static final int FETCH_SIZE = 10_000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Runs in a read-only transaction, the driver only streams rows with a cursor when autocommit is off.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void scan(Collection<String> symbols, LocalDateTime dateFrom, LocalDateTime dateTo, PriceConsumer consumer) {
+    jdbcTemplate.query(connection -> {
+      var statement = connection.prepareStatement(SCAN_SQL);
+      var symbolArray = connection.createArrayOf("varchar", symbols.toArray());
+      statement.setTimestamp(1, Timestamp.valueOf(dateFrom));
+      statement.setTimestamp(2, Timestamp.valueOf(dateTo));
+      statement.setArray(3, symbolArray);
+      statement.setArray(4, symbolArray);
+      statement.setFetchSize(FETCH_SIZE);
+      return statement;
+    }, resultSet -> {
+      consumer.accept(resultSet.getString(1),
+        resultSet.getTimestamp(2).toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli(),
+        resultSet.getLong(3));
+    });
+  }
+}
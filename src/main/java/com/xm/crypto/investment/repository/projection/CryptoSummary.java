@@ -0,0 +1,33 @@
+package com.xm.crypto.investment.repository.projection;
+
+import lombok.Value;
+
+/**
+ * Immutable {@link CryptoSummaryView} computed outside of the database.
+ */
+@Value
+public class CryptoSummary implements CryptoSummaryView {
+  String symbol;
+  Long minPrice;
+  Long maxPrice;
+  Long oldestPrice;
+  Long newestPrice;
+
+  /**
+   * Combines summaries of two adjacent windows of the same crypto, either of them may be {@code null}.
+   *
+   * @param earlier summary of the earlier window
+   * @param later   summary of the later window
+   * @return summary of both windows
+   */
+  public static CryptoSummaryView merge(CryptoSummaryView earlier, CryptoSummaryView later) {
+    if (earlier == null || later == null) {
+      return earlier != null ? earlier : later;
+    }
+    return new CryptoSummary(earlier.getSymbol(),
+      Math.min(earlier.getMinPrice(), later.getMinPrice()),
+      Math.max(earlier.getMaxPrice(), later.getMaxPrice()),
+      earlier.getOldestPrice(),
+      later.getNewestPrice());
+  }
+}
@@ -1,14 +1,19 @@
 package com.xm.crypto.investment.repository.projection;
 
+import com.xm.crypto.investment.model.FixedPointPrice;
+
+/**
+ * Summary of the prices of a crypto in a window, prices are {@link FixedPointPrice fixed-point} longs.
+ */
 public interface CryptoSummaryView {
 
   String getSymbol();
 
-  Double getMinPrice();
+  Long getMinPrice();
 
-  Double getMaxPrice();
+  Long getMaxPrice();
 
-  Double getOldestPrice();
+  Long getOldestPrice();
 
-  Double getNewestPrice();
+  Long getNewestPrice();
 }
@@ -0,0 +1,120 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.repository.CryptoDailySummaryRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the cache with the most requested responses once the startup load is done: the all-interval
+ * normalized ranges and statistics, the all-interval statistics of every crypto and the highest
+ * normalized range of the last {@code crypto.cache.warm-up.days} days having prices.
+ * The pod is reported ready only once warm-up is done, has timed out or was skipped as the startup load failed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmer {
+
+  private final CryptoDataService cryptoDataService;
+  private final CryptoDailySummaryRepository cryptoDailySummaryRepository;
+
+  @Value("${crypto.cache.warm-up.enabled:true}")
+  private boolean enabled;
+  @Value("${crypto.cache.warm-up.days:7}")
+  private int days;
+  @Value("${crypto.cache.warm-up.parallelism:4}")
+  private int parallelism;
+  @Value("${crypto.cache.warm-up.timeout:2m}")
+  private Duration timeout;
+
+  private volatile boolean warmedUp;
+  private volatile boolean skipped;
+
+  public boolean isWarmedUp() {
+    return warmedUp;
+  }
+
+  /**
+   * Returns whether warm-up was given up because the startup load failed.
+   */
+  public boolean isSkipped() {
+    return skipped && !warmedUp;
+  }
+
+  @EventListener(condition = "#event.initialLoad")
+  public void onInitialLoad(PricesIngestedEvent event) {
+    if (enabled) {
+      warmUp();
+    } else {
+      warmedUp = true;
+    }
+  }
+
+  @EventListener
+  public void onIngestFailed(PricesIngestFailedEvent event) {
+    log.warn("onIngestFailed:: Skipping cache warm-up, the startup load failed: {}", event.getError().toString());
+    skipped = true;
+  }
+
+  /**
+   * Computes the responses on a bounded pool and waits for them. Failures of single responses
+   * are logged and leave them to be computed on demand.
+   */
+  public void warmUp() {
+    long start = System.nanoTime();
+    var executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      var tasks = new ArrayList<CompletableFuture<Void>>();
+      tasks.add(warmUp("normalized ranges", () -> cryptoDataService.getCryptosNormalizedRange(null, null), executor));
+      tasks.add(CompletableFuture.supplyAsync(() -> cryptoDataService.getStatistics(null, null, null), executor)
+        .thenCompose(statistics -> {
+          var symbolTasks = new ArrayList<CompletableFuture<Void>>();
+          for (CryptoStatisticDto statistic : statistics.getCryptos()) {
+            symbolTasks.add(warmUp(statistic.getSymbol() + " statistics",
+              () -> cryptoDataService.getStatisticsByCrypto(statistic.getSymbol(), null, null), executor));
+          }
+          return CompletableFuture.allOf(symbolTasks.toArray(CompletableFuture[]::new));
+        })
+        .exceptionally(e -> {
+          log.warn("warmUp:: Failed to warm up statistics", e);
+          return null;
+        }));
+      var latestDay = cryptoDailySummaryRepository.findLatestDay();
+      for (int i = 0; latestDay.isPresent() && i < days; i++) {
+        LocalDate day = latestDay.get().minusDays(i);
+        tasks.add(warmUp("highest normalized range of " + day, () -> cryptoDataService.getNormalizedRangeHighest(day), executor));
+      }
+      CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      log.info("warmUp:: Cache warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (TimeoutException e) {
+      log.warn("warmUp:: Cache warm-up did not finish within {}, serving anyway", timeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      log.warn("warmUp:: Cache warm-up failed", e);
+    } finally {
+      executor.shutdownNow();
+      warmedUp = true;
+    }
+  }
+
+  private static CompletableFuture<Void> warmUp(String name, Runnable task, Executor executor) {
+    return CompletableFuture.runAsync(task, executor).exceptionally(e -> {
+      log.warn("warmUp:: Failed to warm up {}", name, e);
+      return null;
+    });
+  }
+}
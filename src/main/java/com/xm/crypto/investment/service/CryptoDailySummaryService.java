@@ -0,0 +1,45 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.repository.CryptoDailySummaryRepository;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the crypto_daily_summary rollup incrementally as new prices get persisted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoDailySummaryService {
+
+  private final CryptoDailySummaryRepository cryptoDailySummaryRepository;
+  private final CryptoLeaderboardService cryptoLeaderboardService;
+
+  /**
+   * Recomputes the rollup rows of every crypto and day touched by an ingestion run,
+   * then the leaderboard of those days.
+   * Days are rebuilt from raw rows, so refreshing the same day twice is harmless.
+   * Must run once the touched rows are committed, not concurrently with their writers.
+   *
+   * @param touchedDays days that received new rows in crypto_data
+   */
+  @Transactional
+  public void refresh(TouchedDays touchedDays) {
+    var touchedRange = new LocalDate[2];
+    touchedDays.forEach((symbol, fromDay, toDay) -> {
+      touchedRange[0] = touchedRange[0] == null || fromDay.isBefore(touchedRange[0]) ? fromDay : touchedRange[0];
+      touchedRange[1] = touchedRange[1] == null || toDay.isAfter(touchedRange[1]) ? toDay : touchedRange[1];
+      var dateTimeFrom = fromDay.atTime(LocalTime.MIN);
+      var dateTimeTo = toDay.plusDays(1).atTime(LocalTime.MIN);
+      var refreshed = cryptoDailySummaryRepository.refreshDays(symbol, dateTimeFrom, dateTimeTo);
+      log.debug("refresh:: Refreshed {} daily summaries of {} from {} to {}", refreshed, symbol, dateTimeFrom, dateTimeTo);
+    });
+    if (touchedRange[0] != null) {
+      cryptoLeaderboardService.refresh(touchedRange[0], touchedRange[1]);
+    }
+  }
+}
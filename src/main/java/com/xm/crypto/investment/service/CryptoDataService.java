@@ -1,22 +1,31 @@
 package com.xm.crypto.investment.service;
 
+import com.xm.crypto.investment.cache.CacheTtlPolicy;
+import com.xm.crypto.investment.cache.CryptoCache;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
 import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import com.xm.crypto.investment.domain.dto.CryptoSymbolListDto;
 import com.xm.crypto.investment.exception.CryptoNotSupportedException;
-import com.xm.crypto.investment.repository.CryptoDataRepository;
+import com.xm.crypto.investment.exception.InvalidRangeException;
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.repository.CryptoSummarySource;
 import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -24,8 +33,11 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class CryptoDataService {
 
-  private final CryptoDataRepository cryptoDataRepository;
-  private final RedisTemplate<String, Object> redisTemplate;
+  private final CryptoSummarySource cryptoSummarySource;
+  private final CryptoCache cryptoCache;
+  private final CacheTtlPolicy cacheTtlPolicy;
+  private final MeterRegistry meterRegistry;
+  private final SymbolRegistry symbolRegistry;
 
   /**
    * Calculates a list of cryptocurrency prices normalized to a specified date range from the database.
@@ -37,22 +49,17 @@ public class CryptoDataService {
    */
 
   public CryptoNormalizedListDto getCryptosNormalizedRange(LocalDate dateFrom, LocalDate dateTo) {
-    var key = getKeyForNormalizedRange(dateFrom, dateTo);
-    var cachedResult = redisTemplate.opsForValue().get(key);
-    CryptoNormalizedListDto cryptoNormalizedListDto;
-    if (cachedResult != null ) {
-      cryptoNormalizedListDto = (CryptoNormalizedListDto) cachedResult;
-      return cryptoNormalizedListDto;
-    }
-    var dateTimeFrom =
-      dateFrom != null ? LocalDateTime.of(dateFrom, LocalTime.MIN) : LocalDateTime.of(1970, 1, 1, 0, 0, 0);
-    var dateTimeTo = dateTo != null ? LocalDateTime.of(dateTo, LocalTime.MIN) : LocalDateTime.now();
-    log.info("getCryptosNormalizedRange:: Trying to load cryptos summary from DB for dateFrom {} and dateTo {}", dateFrom, dateTo);
-    var cryptoSummaryViewList = cryptoDataRepository.calculateCryptosSummary(dateTimeFrom, dateTimeTo);
-    var cryptoNormalizedList = calculateSortedNormalizedRanges(cryptoSummaryViewList);
-    var result = new CryptoNormalizedListDto().cryptos(cryptoNormalizedList);
-    redisTemplate.opsForValue().set(key, result);
-    return result;
+    return timed("getCryptosNormalizedRange", () -> {
+      var key = getKeyForNormalizedRange(dateFrom, dateTo);
+      return cryptoCache.getOrLoad(key, cacheTtlPolicy.ttlFor(dateFrom, dateTo), () -> {
+        var dateTimeFrom =
+          dateFrom != null ? LocalDateTime.of(dateFrom, LocalTime.MIN) : LocalDateTime.of(1970, 1, 1, 0, 0, 0);
+        var dateTimeTo = dateTo != null ? LocalDateTime.of(dateTo, LocalTime.MIN) : LocalDateTime.now();
+        log.info("getCryptosNormalizedRange:: Trying to load cryptos summary from DB for dateFrom {} and dateTo {}", dateFrom, dateTo);
+        var cryptoSummaryViewList = summarize(dateTimeFrom, dateTimeTo);
+        return new CryptoNormalizedListDto().cryptos(calculateSortedNormalizedRanges(cryptoSummaryViewList));
+      });
+    });
   }
 
   /**
@@ -62,22 +69,18 @@ public class CryptoDataService {
    * @return CryptoNormalizedDto
    */
   public CryptoNormalizedDto getNormalizedRangeHighest(LocalDate date) {
-    var toDate = date.plusDays(1);
-    var key = getKeyForNormalizedRange(date, toDate);
-    var cachedResult = redisTemplate.opsForValue().get(key);
-    CryptoNormalizedListDto cryptoNormalizedListDto;
-    if (cachedResult != null) {
-      cryptoNormalizedListDto = (CryptoNormalizedListDto) cachedResult;
+    return timed("getNormalizedRangeHighest", () -> {
+      var toDate = date.plusDays(1);
+      var key = getKeyForNormalizedRange(date, toDate);
+      CryptoNormalizedListDto cryptoNormalizedListDto = cryptoCache.getOrLoad(key, cacheTtlPolicy.ttlFor(date, toDate), () -> {
+        var dateTimeFrom = LocalDateTime.of(date, LocalTime.MIN);
+        var dateTimeTo = LocalDateTime.of(toDate, LocalTime.MIN);
+        log.info("getNormalizedRangeHighest:: Trying to load cryptos summary from DB for date {}", date);
+        var cryptoSummaryViewList = summarize(dateTimeFrom, dateTimeTo);
+        return new CryptoNormalizedListDto().cryptos(calculateSortedNormalizedRanges(cryptoSummaryViewList));
+      });
       return cryptoNormalizedListDto.getCryptos().get(0);
-    }
-
-    var dateTimeFrom = LocalDateTime.of(date, LocalTime.MIN);
-    var dateTimeTo = LocalDateTime.of(toDate, LocalTime.MIN);
-    log.info("getNormalizedRangeHighest:: Trying to load cryptos summary from DB for date {}", date);
-    var cryptoSummaryViewList = cryptoDataRepository.calculateCryptosSummary(dateTimeFrom, dateTimeTo);
-    var cryptoNormalizedList = calculateSortedNormalizedRanges(cryptoSummaryViewList);
-    redisTemplate.opsForValue().set(key, new CryptoNormalizedListDto().cryptos(cryptoNormalizedList));
-    return cryptoNormalizedList.get(0);
+    });
   }
 
   /**
@@ -89,22 +92,136 @@ public class CryptoDataService {
    * @return CryptoStatisticDto
    */
   public CryptoStatisticDto getStatisticsByCrypto(String crypto, LocalDate dateFrom, LocalDate dateTo) {
-    crypto = crypto.toUpperCase();
-    var key = getKeyForStatistic(crypto, dateFrom, dateTo);
-    var cachedResult = redisTemplate.opsForValue().get(key);
-    CryptoStatisticDto cryptoStatisticDto;
-    if (cachedResult != null) {
-      cryptoStatisticDto = (CryptoStatisticDto) cachedResult;
-      return cryptoStatisticDto;
+    return timed("getStatisticsByCrypto", () -> {
+      var symbol = crypto.toUpperCase();
+      requireSupported(symbol);
+      var key = getKeyForStatistic(symbol, dateFrom, dateTo);
+      return cryptoCache.getOrLoad(key, cacheTtlPolicy.ttlFor(dateFrom, dateTo), () -> {
+        var dateTimeFrom =
+          dateFrom != null ? LocalDateTime.of(dateFrom, LocalTime.MIN) : LocalDateTime.of(1970, 1, 1, 0, 0, 0);
+        var dateTimeTo = dateTo != null ? LocalDateTime.of(dateTo, LocalTime.MIN) : LocalDateTime.now();
+        var cachedStatistics = (CryptoStatisticListDto) cryptoCache.getIfPresent(getKeyForStatistics(dateFrom, dateTo));
+        if (cachedStatistics != null) {
+          return findStatistic(cachedStatistics, symbol);
+        }
+        log.info("getStatisticsByCrypto:: Hitting DB for dateFrom {} and dateTo {}", dateFrom, dateTo);
+        var cryptoSummary = summarize(symbol, dateTimeFrom, dateTimeTo);
+        return calculateCryptoStatisticsByCrypto(symbol, cryptoSummary);
+      });
+    });
+  }
+
+  /**
+   * Calculates oldest/newest/min/max for several cryptos in any time frame. The statistics of all
+   * cryptos are computed and cached together, so any subset is served from one cache entry.
+   *
+   * @param symbols  crypto symbols (e.g BTC), all cryptos when null or empty, must not hold blank entries
+   * @param dateFrom The start date for the query
+   * @param dateTo   The end date for the query
+   * @return CryptoStatisticListDto
+   */
+  public CryptoStatisticListDto getStatistics(List<String> symbols, LocalDate dateFrom, LocalDate dateTo) {
+    return timed("getStatistics", () -> {
+      if (symbols != null) {
+        symbols.forEach(symbol -> {
+          if (symbol == null || symbol.isBlank()) {
+            throw new InvalidRangeException("symbols must not contain blank entries");
+          }
+          requireSupported(symbol.toUpperCase());
+        });
+      }
+      var key = getKeyForStatistics(dateFrom, dateTo);
+      CryptoStatisticListDto statistics = cryptoCache.getOrLoad(key, cacheTtlPolicy.ttlFor(dateFrom, dateTo), () -> {
+        var dateTimeFrom =
+          dateFrom != null ? LocalDateTime.of(dateFrom, LocalTime.MIN) : LocalDateTime.of(1970, 1, 1, 0, 0, 0);
+        var dateTimeTo = dateTo != null ? LocalDateTime.of(dateTo, LocalTime.MIN) : LocalDateTime.now();
+        log.info("getStatistics:: Hitting DB for dateFrom {} and dateTo {}", dateFrom, dateTo);
+        return new CryptoStatisticListDto().cryptos(summarize(dateTimeFrom, dateTimeTo).stream()
+          .map(this::toCryptoStatistic)
+          .sorted(Comparator.comparing(CryptoStatisticDto::getSymbol))
+          .collect(Collectors.toList()));
+      });
+      if (symbols == null || symbols.isEmpty()) {
+        return statistics;
+      }
+      return new CryptoStatisticListDto().cryptos(symbols.stream()
+        .map(String::toUpperCase)
+        .distinct()
+        .map(symbol -> findStatistic(statistics, symbol))
+        .collect(Collectors.toList()));
+    });
+  }
+
+  /**
+   * Returns the symbols of the supported cryptos, statistics of any other symbol are not found.
+   *
+   * @return CryptoSymbolListDto
+   */
+  public CryptoSymbolListDto getSymbols() {
+    return new CryptoSymbolListDto().symbols(symbolRegistry.getSymbols());
+  }
+
+  /**
+   * Rejects a symbol no crypto was ingested for before it reaches the cache or the read backend.
+   * Rejections are client errors which anyone can send in bulk, so they are counted rather than logged.
+   */
+  private void requireSupported(String symbol) {
+    if (!symbolRegistry.isSupported(symbol)) {
+      throw notSupported(symbol);
     }
-    var dateTimeFrom =
-      dateFrom != null ? LocalDateTime.of(dateFrom, LocalTime.MIN) : LocalDateTime.of(1970, 1, 1, 0, 0, 0);
-    var dateTimeTo = dateTo != null ? LocalDateTime.of(dateTo, LocalTime.MIN) : LocalDateTime.now();
-    log.info("getStatisticsByCrypto:: Hitting DB for dateFrom {} and dateTo {}", dateFrom, dateTo);
-    var cryptoSummaryViewList = cryptoDataRepository.calculateCryptosSummary(dateTimeFrom, dateTimeTo);
-    cryptoStatisticDto = calculateCryptoStatisticsByCrypto(crypto, cryptoSummaryViewList);
-    redisTemplate.opsForValue().set(key, cryptoStatisticDto);
-    return cryptoStatisticDto;
+  }
+
+  private CryptoNotSupportedException notSupported(String symbol) {
+    meterRegistry.counter("crypto.symbols.rejected").increment();
+    log.debug("notSupported:: The {} symbol for cryptocurrency is not supported", symbol);
+    return new CryptoNotSupportedException(symbol);
+  }
+
+  private <T> T timed(String method, Supplier<T> call) {
+    return Timer.builder("crypto.service.requests")
+      .description("Duration of CryptoDataService calls, cache lookups included")
+      .tag("method", method)
+      .register(meterRegistry)
+      .record(call);
+  }
+
+  private List<CryptoSummaryView> summarize(LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+    return summaryTimer("all", dateTimeFrom, dateTimeTo).record(() -> cryptoSummarySource.summarize(dateTimeFrom, dateTimeTo));
+  }
+
+  private Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+    return summaryTimer("symbol", dateTimeFrom, dateTimeTo)
+      .record(() -> cryptoSummarySource.summarize(symbol, dateTimeFrom, dateTimeTo));
+  }
+
+  /**
+   * Returns the timer of summary queries over all cryptos or a single one, tagged by the length
+   * of the queried window, so the latency of short and long windows can be told apart.
+   */
+  private Timer summaryTimer(String scope, LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+    return Timer.builder("crypto.summary.query")
+      .description("Duration of summary queries on the read backend")
+      .tag("scope", scope)
+      .tag("window", windowLength(dateTimeFrom, dateTimeTo))
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private static String windowLength(LocalDateTime dateTimeFrom, LocalDateTime dateTimeTo) {
+    long days = Duration.between(dateTimeFrom, dateTimeTo).toDays();
+    if (days <= 1) {
+      return "day";
+    }
+    if (days <= 7) {
+      return "week";
+    }
+    if (days <= 31) {
+      return "month";
+    }
+    if (days <= 366) {
+      return "year";
+    }
+    return "longer";
   }
 
   private String getKeyForNormalizedRange(LocalDate fromDate, LocalDate toDate) {
@@ -114,6 +231,13 @@ public class CryptoDataService {
     return String.format("normalized_%s_%s", fromDate, toDate);
   }
 
+  private String getKeyForStatistics(LocalDate fromDate, LocalDate toDate) {
+    if (fromDate == null && toDate == null) {
+      return "statistics_all_interval";
+    }
+    return String.format("statistics_%s_%s", fromDate, toDate);
+  }
+
   private String getKeyForStatistic(String crypto, LocalDate fromDate, LocalDate toDate) {
     if (fromDate == null && toDate == null) {
       return crypto + "_all_interval";
@@ -126,34 +250,34 @@ public class CryptoDataService {
     return cryptoSummaryViewList.stream().map(cryptoSummaryView -> {
       var normalizedRange = new CryptoNormalizedDto();
       normalizedRange.setSymbol(cryptoSummaryView.getSymbol());
-      var minPrice = BigDecimal.valueOf(cryptoSummaryView.getMinPrice());
-      var maxPrice = BigDecimal.valueOf(cryptoSummaryView.getMaxPrice());
-      if (!BigDecimal.ZERO.equals(minPrice)) {
-        var normalizedPrice = (maxPrice.subtract(minPrice))
-          .divide(minPrice, RoundingMode.HALF_EVEN);
-        normalizedRange.setNormalizedPrice(normalizedPrice);
-        return normalizedRange;
-      }
-      normalizedRange.setNormalizedPrice(BigDecimal.ZERO);
+      normalizedRange.setNormalizedPrice(
+        NormalizedRanges.of(cryptoSummaryView.getMinPrice(), cryptoSummaryView.getMaxPrice()));
       return normalizedRange;
     }).sorted(Comparator.comparing(CryptoNormalizedDto::getNormalizedPrice)
       .reversed()).collect(Collectors.toList());
   }
 
-  private CryptoStatisticDto calculateCryptoStatisticsByCrypto(String crypto, List<CryptoSummaryView> cryptoSummaryViewList) {
-    var cryptoSummary = cryptoSummaryViewList.stream()
-      .filter(cryptoSummaryView -> cryptoSummaryView.getSymbol().equals(crypto))
-      .findFirst();
+  private CryptoStatisticDto calculateCryptoStatisticsByCrypto(String crypto, Optional<CryptoSummaryView> cryptoSummary) {
     if (cryptoSummary.isEmpty()) {
-      log.error("At the moment, the {} symbol for cryptocurrency is not supported.", crypto);
-      throw new CryptoNotSupportedException(crypto);
+      throw notSupported(crypto);
     }
+    return toCryptoStatistic(cryptoSummary.get());
+  }
+
+  private CryptoStatisticDto findStatistic(CryptoStatisticListDto statistics, String crypto) {
+    return statistics.getCryptos().stream()
+      .filter(statistic -> statistic.getSymbol().equals(crypto))
+      .findFirst()
+      .orElseThrow(() -> notSupported(crypto));
+  }
+
+  private CryptoStatisticDto toCryptoStatistic(CryptoSummaryView cryptoSummary) {
     var cryptoStatisticDto = new CryptoStatisticDto();
-    cryptoStatisticDto.setSymbol(cryptoSummary.get().getSymbol());
-    cryptoStatisticDto.setMax(BigDecimal.valueOf(cryptoSummary.get().getMaxPrice()));
-    cryptoStatisticDto.setMin(BigDecimal.valueOf(cryptoSummary.get().getMinPrice()));
-    cryptoStatisticDto.setNewest(BigDecimal.valueOf(cryptoSummary.get().getNewestPrice()));
-    cryptoStatisticDto.setOldest(BigDecimal.valueOf(cryptoSummary.get().getOldestPrice()));
+    cryptoStatisticDto.setSymbol(cryptoSummary.getSymbol());
+    cryptoStatisticDto.setMax(FixedPointPrice.toBigDecimal(cryptoSummary.getMaxPrice()));
+    cryptoStatisticDto.setMin(FixedPointPrice.toBigDecimal(cryptoSummary.getMinPrice()));
+    cryptoStatisticDto.setNewest(FixedPointPrice.toBigDecimal(cryptoSummary.getNewestPrice()));
+    cryptoStatisticDto.setOldest(FixedPointPrice.toBigDecimal(cryptoSummary.getOldestPrice()));
     return cryptoStatisticDto;
   }
 }
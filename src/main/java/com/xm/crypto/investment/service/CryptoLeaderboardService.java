@@ -0,0 +1,104 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.domain.dto.CryptoDailyLeaderboardDto;
+import com.xm.crypto.investment.domain.dto.CryptoDailyLeaderboardListDto;
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
+import com.xm.crypto.investment.exception.InvalidRangeException;
+import com.xm.crypto.investment.model.CryptoDailyLeaderboard;
+import com.xm.crypto.investment.model.CryptoDailySummary;
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.repository.CryptoDailyLeaderboardRepository;
+import com.xm.crypto.investment.repository.CryptoDailySummaryRepository;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains crypto_daily_leaderboard, the top cryptos by normalized range of every day,
+ * from the daily rollup and serves ranges of days from it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoLeaderboardService {
+
+  private final CryptoDailySummaryRepository cryptoDailySummaryRepository;
+  private final CryptoDailyLeaderboardRepository cryptoDailyLeaderboardRepository;
+
+  @Value("${crypto.leaderboard.size:3}")
+  private int leaderboardSize;
+
+  /**
+   * Rebuilds the leaderboard of the days [fromDay, toDay] from their rollup rows, in one pass
+   * over the rollup whatever the number of days.
+   */
+  @Transactional
+  public void refresh(LocalDate fromDay, LocalDate toDay) {
+    var leaderboard = rank(cryptoDailySummaryRepository.findByDayBetween(fromDay, toDay), leaderboardSize);
+    cryptoDailyLeaderboardRepository.deleteDays(fromDay, toDay);
+    cryptoDailyLeaderboardRepository.saveAll(leaderboard);
+    log.debug("refresh:: Ranked {} cryptos of the days from {} to {}", leaderboard.size(), fromDay, toDay);
+  }
+
+  /**
+   * Returns the cryptos with the highest normalized range for every day of [dateFrom, dateTo).
+   *
+   * @param dateFrom first day, the first stored day when null
+   * @param dateTo   day after the last one, tomorrow (UTC) when null
+   * @param top      number of cryptos per day, 1 when null
+   * @return CryptoDailyLeaderboardListDto
+   */
+  public CryptoDailyLeaderboardListDto getDailyLeaderboard(LocalDate dateFrom, LocalDate dateTo, Integer top) {
+    var dayFrom = dateFrom != null ? dateFrom : LocalDate.EPOCH;
+    var dayAfter = dateTo != null ? dateTo : LocalDate.now(ZoneOffset.UTC).plusDays(1);
+    if (!dayFrom.isBefore(dayAfter)) {
+      throw new InvalidRangeException(String.format("dateFrom %s must be before dateTo %s", dayFrom, dayAfter));
+    }
+    int size = top != null ? top : 1;
+    if (size < 1 || size > leaderboardSize) {
+      throw new InvalidRangeException(String.format("top must be between 1 and %d", leaderboardSize));
+    }
+    var dayTo = dayAfter.minusDays(1);
+    var days = new LinkedHashMap<LocalDate, CryptoDailyLeaderboardDto>();
+    cryptoDailyLeaderboardRepository.findByDayBetweenAndRankLessThanEqualOrderByDayAscRankAsc(dayFrom, dayTo, size)
+      .forEach(entry -> days.computeIfAbsent(entry.getDay(),
+          day -> new CryptoDailyLeaderboardDto().day(day).cryptos(new ArrayList<>()))
+        .addCryptosItem(new CryptoNormalizedDto().symbol(entry.getSymbol()).normalizedPrice(entry.getNormalizedPrice())));
+    return new CryptoDailyLeaderboardListDto().days(new ArrayList<>(days.values()));
+  }
+
+  /**
+   * Ranks the cryptos of each day by normalized range, highest first, keeping the first size of them.
+   * Ties are broken by symbol, so rebuilding a day yields the same ranks.
+   */
+  static List<CryptoDailyLeaderboard> rank(List<CryptoDailySummary> summaries, int size) {
+    var leaderboard = new ArrayList<CryptoDailyLeaderboard>();
+    summaries.stream()
+      .collect(Collectors.groupingBy(CryptoDailySummary::getDay, TreeMap::new, Collectors.toList()))
+      .forEach((day, daySummaries) -> {
+        var ranked = daySummaries.stream()
+          .map(summary -> new CryptoNormalizedDto().symbol(summary.getSymbol()).normalizedPrice(
+            NormalizedRanges.of(FixedPointPrice.fromBigDecimal(summary.getLowPrice()),
+              FixedPointPrice.fromBigDecimal(summary.getHighPrice()))))
+          .sorted(Comparator.comparing(CryptoNormalizedDto::getNormalizedPrice).reversed()
+            .thenComparing(CryptoNormalizedDto::getSymbol))
+          .limit(size)
+          .collect(Collectors.toList());
+        for (int i = 0; i < ranked.size(); i++) {
+          leaderboard.add(new CryptoDailyLeaderboard(day, i + 1, ranked.get(i).getSymbol(),
+            ranked.get(i).getNormalizedPrice()));
+        }
+      });
+    return leaderboard;
+  }
+}
@@ -0,0 +1,110 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.exception.InvalidRangeException;
+import com.xm.crypto.investment.repository.CryptoPriceSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CryptoRollingRangeService {
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final CryptoPriceSource cryptoPriceSource;
+
+  /**
+   * Calculates the normalized range of each crypto over the windows of windowDays days starting
+   * every stepDays days from dateFrom, up to the last window ending on or before dateTo.
+   * Prices are scanned once in time order, results are passed to the sink as soon as a window
+   * is complete, grouped by symbol and ordered by window start.
+   *
+   * @param symbols    crypto symbols (e.g BTC), all cryptos when null or empty
+   * @param dateFrom   start of the first window
+   * @param dateTo     end (exclusive) of the range
+   * @param windowDays length of a window in days
+   * @param stepDays   distance between window starts in days
+   * @param sink       receives the normalized ranges
+   */
+  public void calculateRollingNormalizedRanges(List<String> symbols, LocalDate dateFrom, LocalDate dateTo,
+                                               int windowDays, int stepDays, Consumer<RollingNormalizedRange> sink) {
+    validate(dateFrom, dateTo, windowDays, stepDays);
+    int windowCount = Math.toIntExact((ChronoUnit.DAYS.between(dateFrom, dateTo) - windowDays) / stepDays + 1);
+    var requestedSymbols = symbols == null ? List.<String>of()
+      : symbols.stream().map(String::toUpperCase).distinct().collect(Collectors.toList());
+    log.info("calculateRollingNormalizedRanges:: Scanning prices from {} to {} for {} windows", dateFrom, dateTo, windowCount);
+    var scan = new RollingScan(dateFrom, windowDays, stepDays, windowCount, sink);
+    cryptoPriceSource.scan(requestedSymbols, LocalDateTime.of(dateFrom, LocalTime.MIN),
+      LocalDateTime.of(dateTo, LocalTime.MIN), scan);
+    scan.finishSymbol();
+  }
+
+  /**
+   * Checks that the range holds at least one window.
+   */
+  public void validate(LocalDate dateFrom, LocalDate dateTo, int windowDays, int stepDays) {
+    if (windowDays < 1 || stepDays < 1) {
+      throw new InvalidRangeException("windowDays and stepDays must be positive");
+    }
+    if (ChronoUnit.DAYS.between(dateFrom, dateTo) < windowDays) {
+      throw new InvalidRangeException(
+        String.format("The range from %s to %s is shorter than a window of %d days", dateFrom, dateTo, windowDays));
+    }
+  }
+
+  /**
+   * Feeds the prices of each symbol to its own sliding windows, completing them when the next symbol starts.
+   */
+  private static final class RollingScan implements CryptoPriceSource.PriceConsumer {
+
+    private final LocalDate dateFrom;
+    private final int windowDays;
+    private final int stepDays;
+    private final int windowCount;
+    private final Consumer<RollingNormalizedRange> sink;
+    private String symbol;
+    private SlidingWindowRange windows;
+
+    private RollingScan(LocalDate dateFrom, int windowDays, int stepDays, int windowCount,
+                        Consumer<RollingNormalizedRange> sink) {
+      this.dateFrom = dateFrom;
+      this.windowDays = windowDays;
+      this.stepDays = stepDays;
+      this.windowCount = windowCount;
+      this.sink = sink;
+    }
+
+    @Override
+    public void accept(String priceSymbol, long epochMillis, long price) {
+      if (!priceSymbol.equals(symbol)) {
+        finishSymbol();
+        symbol = priceSymbol;
+        windows = new SlidingWindowRange(LocalDateTime.of(dateFrom, LocalTime.MIN).toInstant(ZoneOffset.UTC).toEpochMilli(),
+          windowDays * MILLIS_PER_DAY, stepDays * MILLIS_PER_DAY, windowCount, this::emit);
+      }
+      windows.add(epochMillis, price);
+    }
+
+    private void finishSymbol() {
+      if (windows != null) {
+        windows.finish();
+      }
+    }
+
+    private void emit(int window, long minPrice, long maxPrice) {
+      var windowStart = dateFrom.plusDays((long) window * stepDays);
+      sink.accept(new RollingNormalizedRange(symbol, windowStart, windowStart.plusDays(windowDays),
+        NormalizedRanges.of(minPrice, maxPrice)));
+    }
+  }
+}
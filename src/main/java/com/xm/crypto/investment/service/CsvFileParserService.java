@@ -1,21 +1,39 @@
 package com.xm.crypto.investment.service;
 
-import com.xm.crypto.investment.model.CryptoData;
-import com.xm.crypto.investment.repository.CryptoDataRepository;
-import java.io.BufferedReader;
+import com.xm.crypto.investment.model.IngestCheckpoint;
+import com.xm.crypto.investment.model.PriceBatch;
+import com.xm.crypto.investment.repository.CryptoDataJdbcRepository;
+import com.xm.crypto.investment.repository.CryptoDataPartitionRepository;
+import com.xm.crypto.investment.repository.IngestCheckpointRepository;
+import com.xm.crypto.investment.repository.IngestLockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.time.Instant;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
@@ -31,42 +49,373 @@ public class CsvFileParserService {
 
   @Value("${crypto.location-pattern}")
   private String cryptoLocationPattern;
+  @Value("${crypto.ingest.batch-size:10000}")
+  private int batchSize;
+  @Value("${crypto.ingest.memory-mapped:true}")
+  private boolean memoryMapped;
+  @Value("${crypto.ingest.chunk-size:67108864}")
+  private long chunkSize;
+  @Value("${crypto.ingest.parallelism:0}")
+  private int parallelism;
+  @Value("${crypto.ingest.watch.enabled:false}")
+  private boolean watchEnabled;
+  @Value("${crypto.ingest.background:true}")
+  private boolean background;
+  @Value("${crypto.ingest.lock.enabled:true}")
+  private boolean lockEnabled;
+  @Value("${crypto.ingest.lock.poll-interval:1s}")
+  private Duration lockPollInterval;
+  @Value("${crypto.partitions.months-ahead:3}")
+  private int partitionMonthsAhead;
+  @Value("${crypto.partitions.detach-after-months:0}")
+  private int partitionDetachAfterMonths;
   @Autowired
-  private CryptoDataRepository cryptoDataRepository;
+  private CryptoDataJdbcRepository cryptoDataJdbcRepository;
+  @Autowired
+  private CryptoDataPartitionRepository cryptoDataPartitionRepository;
+  @Autowired
+  private IngestCheckpointRepository ingestCheckpointRepository;
+  @Autowired
+  private IngestLockRepository ingestLockRepository;
+  @Autowired
+  private CryptoDailySummaryService cryptoDailySummaryService;
+  @Autowired
+  private ObjectProvider<PriceIngestListener> priceIngestListeners;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private IngestProgress ingestProgress;
+
+  private ExecutorService ingestExecutor;
 
   /**
-   * On the occurrence of the ApplicationReadyEvent, the method loads the crypto data
-   * from CSV files and persists it into the database using repositories.
+   * Starts loading the price files once the application is ready: on a dedicated thread when
+   * {@code crypto.ingest.background} is set, so startup does not wait for the whole history,
+   * and in the event listener otherwise.
    */
   @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!background) {
+      loadPricesFromCsv();
+      return;
+    }
+    ingestExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "price-ingest"));
+    ingestExecutor.execute(() -> {
+      try {
+        loadPricesFromCsv();
+      } catch (RuntimeException e) {
+        log.error("onApplicationReady:: Crypto load process is failed.", e);
+        fail(e);
+      }
+    });
+    ingestExecutor.shutdown();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (ingestExecutor != null) {
+      ingestExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads the crypto data from CSV files and persists it into the database using repositories.
+   * Files, and chunks of large files, are parsed concurrently. Files are resumed from their
+   * checkpoint, so rows stored by a previous run are not written again.
+   * Progress is published through {@link IngestProgress}.
+   * Replicas load one at a time under the ingest lock: a replica starting while another one loads
+   * waits for it, then finds the files stored up to their checkpoints and only replays them to
+   * in-process listeners. A replica dying mid-load releases the lock and the next one resumes its work.
+   * When a file fails, the days of the prices already stored are still rolled up and announced.
+   */
   public void loadPricesFromCsv() {
     log.info("loadPricesFromCsv:: Started loading CSV files by location pattern: {}", cryptoLocationPattern);
+    var touchedDays = new TouchedDays();
+    if (lockEnabled) {
+      ingestProgress.waiting();
+    }
+    boolean loaded = false;
+    int detached = 0;
+    try (var lock = lockEnabled ? ingestLockRepository.acquire(lockPollInterval) : null) {
+      try {
+        loaded = loadCsvFiles(touchedDays, lock);
+      } finally {
+        // files stored before a failure keep their rows and checkpoints and are not loaded again,
+        // so their days are rolled up either way
+        cryptoDailySummaryService.refresh(touchedDays);
+      }
+      if (loaded && partitionDetachAfterMonths > 0) {
+        var detachBefore = YearMonth.now(ZoneOffset.UTC).minusMonths(partitionDetachAfterMonths);
+        detached = cryptoDataPartitionRepository.detachPartitionsBefore(detachBefore);
+        eventPublisher.publishEvent(new PricesDetachedEvent(this, detachBefore.atDay(1).atTime(LocalTime.MIN)));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("loadPricesFromCsv:: Interrupted while waiting for the ingest lock");
+      fail(e);
+      return;
+    }
+    // detached months change the stored prices as much as new ones
+    boolean pricesChanged = !touchedDays.isEmpty() || detached > 0;
+    if (loaded) {
+      ingestProgress.complete();
+    } else if (!pricesChanged) {
+      return;
+    }
+    eventPublisher.publishEvent(new PricesIngestedEvent(this, true, pricesChanged));
+    log.info(loaded ? "loadPricesFromCsv:: CSV files successfully stored in DB"
+      : "loadPricesFromCsv:: CSV files partially stored in DB, the prices stored before the failure are served");
+  }
+
+  private boolean loadCsvFiles(TouchedDays touchedDays, IngestLockRepository.Lock lock) {
     ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    var executor = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    var tasks = new ArrayList<CompletableFuture<Void>>();
     try {
+      var currentMonth = YearMonth.now(ZoneOffset.UTC);
+      cryptoDataPartitionRepository.ensurePartitions(currentMonth, currentMonth.plusMonths(partitionMonthsAhead));
       Resource[] resources = resolver.getResources(cryptoLocationPattern);
+      ingestProgress.start(resources.length);
       for (Resource resource : resources) {
-        loadCsvFile(resource.getInputStream());
+        tasks.add(loadCsvFile(resource, touchedDays, executor, lock));
+      }
+      CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+      return true;
+    } catch (IOException | RuntimeException e) {
+      log.error("loadCsvFiles:: Crypto load process is failed.", e);
+      // files scheduled before the failure are still being stored, their days are rolled up once they are done
+      awaitQuietly(tasks);
+      fail(e);
+      return false;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Stores the complete lines appended to a price file since its checkpoint. A file that
+   * no longer matches its checkpoint is considered replaced and ingested from the start.
+   *
+   * @param path price file
+   * @return whether new prices were stored
+   */
+  public boolean ingestAppendedLines(Path path) throws IOException {
+    var fileName = path.getFileName().toString();
+    var touchedDays = new TouchedDays();
+    var sample = Timer.start(meterRegistry);
+    try (var content = PriceFileContent.open(path, memoryMapped)) {
+      long offset = resumeOffset(fileName, content);
+      if (offset == content.size()) {
+        return false;
+      }
+      long parsed = parser(batch -> storeBatch(batch, touchedDays)).parse(content, offset, content.size(), chunkSize, false);
+      saveCheckpoint(fileName, content, offset, parsed);
+      recordFile(sample, "appended", parsed - offset);
+    }
+    if (touchedDays.isEmpty()) {
+      return false;
+    }
+    cryptoDailySummaryService.refresh(touchedDays);
+    eventPublisher.publishEvent(new PricesIngestedEvent(this, false, true));
+    return true;
+  }
+
+  /**
+   * Schedules parsing of a file, split at line boundaries into chunks of {@code crypto.ingest.chunk-size}
+   * bytes. Rows before the checkpoint are only replayed to in-process listeners, from the offset they
+   * already hold, and not read at all when there is none. The checkpoint of the file is saved once all
+   * of its chunks are stored, and only while the ingest lock is still held, so a replica that lost it
+   * fails its load instead of racing the one that took it over.
+   */
+  private CompletableFuture<Void> loadCsvFile(Resource resource, TouchedDays touchedDays, ExecutorService executor,
+                                              IngestLockRepository.Lock lock) throws IOException {
+    var fileName = resource.getFilename();
+    var sample = Timer.start(meterRegistry);
+    var content = PriceFileContent.open(resource, memoryMapped);
+    long size;
+    long resumeOffset;
+    long replayOffset;
+    try {
+      size = content.size();
+      resumeOffset = resumeOffset(fileName, content);
+      replayOffset = heldOffset(fileName, content, resumeOffset);
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(content);
+      throw e;
+    }
+    ingestProgress.addFile(size - resumeOffset);
+    if (resumeOffset == size && replayOffset == size) {
+      log.info("loadCsvFile:: {} is already stored, skipping it", fileName);
+      content.close();
+      ingestProgress.fileCompleted();
+      return CompletableFuture.completedFuture(null);
+    }
+    var chunks = new ArrayList<CompletableFuture<Long>>();
+    try {
+      if (replayOffset < resumeOffset) {
+        scheduleChunks(content, replayOffset, resumeOffset, batch -> replayBatch(batch), bytes -> { }, executor, chunks);
+      }
+      scheduleChunks(content, resumeOffset, size, batch -> storeBatch(batch, touchedDays),
+        ingestProgress::addStoredBytes, executor, chunks);
+    } catch (IOException | RuntimeException e) {
+      // chunks already scheduled still read the content
+      awaitQuietly(chunks);
+      closeQuietly(content);
+      throw e;
+    }
+    return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+      .whenComplete((result, error) -> closeQuietly(content))
+      .thenRun(() -> {
+        long stored = chunks.isEmpty() ? resumeOffset : chunks.get(chunks.size() - 1).join();
+        if (lock != null) {
+          lock.verify();
+        }
+        saveCheckpoint(fileName, content, resumeOffset, stored);
+        recordFile(sample, "startup", stored - resumeOffset);
+        ingestProgress.fileCompleted();
+      });
+  }
+
+  private void scheduleChunks(PriceFileContent content, long from, long to, Consumer<PriceBatch> sink,
+                              LongConsumer parsedBytes, ExecutorService executor,
+                              List<CompletableFuture<Long>> chunks) throws IOException {
+    long size = content.size();
+    long chunkStart = from;
+    while (chunkStart < to) {
+      long chunkEnd = Math.min(to, content.nextLineStart(
+        Math.min(chunkStart + Math.min(chunkSize, Integer.MAX_VALUE), to) - 1));
+      long start = chunkStart;
+      // a followed file may end with a line that is still being written, the tail picks it up
+      boolean completeTrailingLine = chunkEnd < size || !watchEnabled;
+      chunks.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          long parsed = parser(sink).parse(content, start, chunkEnd, chunkSize, completeTrailingLine);
+          parsedBytes.accept(parsed - start);
+          return parsed;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor));
+      chunkStart = chunkEnd;
+    }
+  }
+
+  /**
+   * Returns the checkpoint offset of the file, or 0 when there is none or the file
+   * no longer starts with the bytes the checkpoint was taken on.
+   */
+  private long resumeOffset(String fileName, PriceFileContent content) throws IOException {
+    var checkpoint = ingestCheckpointRepository.findById(fileName);
+    if (checkpoint.isEmpty()) {
+      return 0;
+    }
+    long offset = checkpoint.get().getByteOffset();
+    if (offset <= content.size() && content.fingerprint(offset).equals(checkpoint.get().getFingerprint())) {
+      return offset;
+    }
+    log.warn("resumeOffset:: {} does not match its checkpoint at {} bytes, ingesting it from the start", fileName, offset);
+    return 0;
+  }
+
+  /**
+   * Returns the offset from which the file is replayed to in-process listeners: the least offset they all
+   * hold, at most the checkpoint offset, or the checkpoint offset when there is no listener.
+   */
+  private long heldOffset(String fileName, PriceFileContent content, long resumeOffset) throws IOException {
+    long size = content.size();
+    LongFunction<String> fingerprint = length -> {
+      try {
+        return length <= size ? content.fingerprint(length) : null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
       }
+    };
+    return priceIngestListeners.orderedStream()
+      .mapToLong(listener -> Math.min(listener.heldOffset(fileName, fingerprint), resumeOffset))
+      .min().orElse(resumeOffset);
+  }
+
+  /**
+   * Saves the checkpoint of the file when it moved past the offset it was resumed from, and tells in-process
+   * listeners they hold it up to the same offset. An unchanged checkpoint keeps its time, which drives the
+   * ingest version.
+   */
+  private void saveCheckpoint(String fileName, PriceFileContent content, long resumeOffset, long byteOffset) {
+    String fingerprint;
+    try {
+      fingerprint = content.fingerprint(byteOffset);
     } catch (IOException e) {
-      log.error("loadPricesFromCsv:: Crypto load process is failed.", e);
-      return;
+      throw new UncheckedIOException(e);
+    }
+    if (byteOffset != resumeOffset) {
+      ingestCheckpointRepository.save(
+        new IngestCheckpoint(fileName, byteOffset, fingerprint, LocalDateTime.now(ZoneOffset.UTC)));
     }
-    log.info("loadPricesFromCsv:: CSV files successfully stored in DB");
+    priceIngestListeners.orderedStream().forEach(listener -> listener.onFileIngested(fileName, byteOffset, fingerprint));
+  }
+
+  private void fail(Throwable e) {
+    ingestProgress.fail(e);
+    eventPublisher.publishEvent(new PricesIngestFailedEvent(this, e));
+  }
+
+  private CsvPriceParser parser(Consumer<PriceBatch> sink) {
+    return new CsvPriceParser(batchSize, sink);
   }
 
-  private void loadCsvFile(InputStream inputStream) throws IOException {
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-      var cryptoDataList = reader.lines().skip(1)
-        .map(this::mapToCryptoData).collect(Collectors.toList());
-      cryptoDataRepository.saveAll(cryptoDataList);
+  private void storeBatch(PriceBatch batch, TouchedDays touchedDays) {
+    var storable = cryptoDataPartitionRepository.ensurePartitions(batch);
+    try {
+      cryptoDataJdbcRepository.upsertAll(storable);
+    } catch (DataAccessException e) {
+      if (!CryptoDataPartitionRepository.isMissingPartition(e)) {
+        throw e;
+      }
+      // another replica may have detached a month this one still knew, look the partitions up again
+      log.warn("storeBatch:: No partition accepts a price of the batch, retrying: {}",
+        e.getMostSpecificCause().getMessage());
+      cryptoDataPartitionRepository.refresh();
+      storable = cryptoDataPartitionRepository.ensurePartitions(batch);
+      cryptoDataJdbcRepository.upsertAll(storable);
     }
+    meterRegistry.counter("crypto.ingest.rows").increment(storable.size());
+    ingestProgress.addRows(storable.size());
+    touchedDays.add(storable);
+    replayBatch(storable);
   }
 
-  private CryptoData mapToCryptoData(String line) {
-    String[] values = line.split(",");
-    var timestamp = Instant.ofEpochMilli(Long.parseLong(values[0]));
-    var symbol = values[1];
-    var price = Double.parseDouble(values[2]);
-    return new CryptoData(null, LocalDateTime.ofInstant(timestamp, ZoneOffset.UTC), symbol, BigDecimal.valueOf(price));
+  /**
+   * Records the ingestion of a file, rows are counted as their batches are stored.
+   *
+   * @param load        "startup" or "appended"
+   * @param storedBytes bytes parsed and stored, replayed ones excluded
+   */
+  private void recordFile(Timer.Sample sample, String load, long storedBytes) {
+    meterRegistry.counter("crypto.ingest.bytes").increment(storedBytes);
+    sample.stop(Timer.builder("crypto.ingest.file")
+      .description("Duration of ingesting a price file")
+      .tag("load", load)
+      .register(meterRegistry));
+  }
+
+  private void replayBatch(PriceBatch batch) {
+    priceIngestListeners.orderedStream().forEach(listener -> listener.onPrices(batch));
+  }
+
+  /**
+   * Waits for the given tasks to end, successfully or not.
+   */
+  private static void awaitQuietly(List<? extends CompletableFuture<?>> tasks) {
+    CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).handle((result, error) -> null).join();
+  }
+
+  private static void closeQuietly(PriceFileContent content) {
+    try {
+      content.close();
+    } catch (IOException e) {
+      log.warn("closeQuietly:: Failed to close price file", e);
+    }
   }
 }
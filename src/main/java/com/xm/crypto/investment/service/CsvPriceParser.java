@@ -0,0 +1,221 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.model.PriceBatch;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Parses {@code timestamp,symbol,price} lines straight from bytes into {@link PriceBatch} columns
+ * holding {@link FixedPointPrice fixed-point} prices,
+ * without creating a String per line or per field. Lines not starting with a digit (the header)
+ * and blank lines are skipped. An instance is not thread-safe, use one per parsed chunk.
+ */
+final class CsvPriceParser {
+
+  private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+  // 10 integer digits times 10^8 units stays below Long.MAX_VALUE
+  private static final int MAX_FAST_PATH_INTEGER_DIGITS = 10;
+
+  private final int batchSize;
+  private final Consumer<PriceBatch> sink;
+  private PriceBatch batch;
+  private byte[] lastSymbolBytes = new byte[0];
+  private String lastSymbol;
+
+  CsvPriceParser(int batchSize, Consumer<PriceBatch> sink) {
+    this.batchSize = batchSize;
+    this.sink = sink;
+    this.batch = new PriceBatch(batchSize);
+  }
+
+  /**
+   * Parses the complete lines of {@code [from, to)} of the content, reading at most
+   * {@code windowSize} bytes at a time, and flushes the last batch.
+   *
+   * @param completeTrailingLine whether a last line without line feed is complete,
+   *                             it is left unparsed otherwise
+   * @return position right after the last parsed line
+   */
+  long parse(PriceFileContent content, long from, long to, long windowSize, boolean completeTrailingLine)
+    throws IOException {
+    long position = from;
+    while (position < to) {
+      long windowEnd = Math.min(to, position + Math.min(windowSize, Integer.MAX_VALUE));
+      var buffer = content.slice(position, windowEnd);
+      int consumed = parseLines(buffer, 0, buffer.limit(), windowEnd == to && completeTrailingLine);
+      if (consumed == 0) {
+        if (windowEnd < to) {
+          throw new IllegalArgumentException(String.format("Price line longer than %d bytes", windowSize));
+        }
+        break;
+      }
+      position += consumed;
+    }
+    flush();
+    return position;
+  }
+
+  /**
+   * Parses the complete lines found in {@code [from, to)} of the buffer.
+   *
+   * @param endOfInput whether a trailing line without line feed is complete
+   * @return index right after the last parsed line
+   */
+  int parseLines(ByteBuffer buffer, int from, int to, boolean endOfInput) {
+    int position = from;
+    while (position < to) {
+      int lineEnd = indexOf(buffer, (byte) '\n', position, to);
+      if (lineEnd < 0) {
+        if (!endOfInput) {
+          break;
+        }
+        lineEnd = to;
+      }
+      parseLine(buffer, position, lineEnd);
+      position = Math.min(lineEnd + 1, to);
+    }
+    return position;
+  }
+
+  /**
+   * Hands the pending rows over to the sink.
+   */
+  void flush() {
+    if (!batch.isEmpty()) {
+      sink.accept(batch);
+      batch = new PriceBatch(batchSize);
+    }
+  }
+
+  private void parseLine(ByteBuffer buffer, int from, int to) {
+    if (to > from && buffer.get(to - 1) == '\r') {
+      to--;
+    }
+    if (to == from || !isDigit(buffer.get(from))) {
+      return;
+    }
+    int firstComma = indexOf(buffer, (byte) ',', from, to);
+    int secondComma = firstComma < 0 ? -1 : indexOf(buffer, (byte) ',', firstComma + 1, to);
+    if (secondComma < 0) {
+      throw malformed(buffer, from, to);
+    }
+    int priceEnd = indexOf(buffer, (byte) ',', secondComma + 1, to);
+    var timestamp = parseTimestamp(buffer, from, firstComma);
+    var symbol = symbol(buffer, firstComma + 1, secondComma);
+    var price = parsePrice(buffer, secondComma + 1, priceEnd < 0 ? to : priceEnd);
+    batch.add(timestamp, symbol, price);
+    if (batch.isFull()) {
+      flush();
+    }
+  }
+
+  private long parseTimestamp(ByteBuffer buffer, int from, int to) {
+    if (to - from > 18) {
+      throw malformed(buffer, from, to);
+    }
+    long value = 0;
+    for (int i = from; i < to; i++) {
+      byte b = buffer.get(i);
+      if (!isDigit(b)) {
+        throw malformed(buffer, from, to);
+      }
+      value = value * 10 + (b - '0');
+    }
+    return value;
+  }
+
+  private String symbol(ByteBuffer buffer, int from, int to) {
+    int length = to - from;
+    if (length == lastSymbolBytes.length) {
+      int i = 0;
+      while (i < length && buffer.get(from + i) == lastSymbolBytes[i]) {
+        i++;
+      }
+      if (i == length) {
+        return lastSymbol;
+      }
+    }
+    lastSymbolBytes = copy(buffer, from, to);
+    lastSymbol = new String(lastSymbolBytes, StandardCharsets.US_ASCII);
+    return lastSymbol;
+  }
+
+  /**
+   * Parses a price into a fixed-point long. Plain decimals with at most 8 fraction digits are
+   * accumulated digit by digit, anything else (exponents, more fraction digits) goes through BigDecimal.
+   */
+  private long parsePrice(ByteBuffer buffer, int from, int to) {
+    int i = from;
+    boolean negative = i < to && buffer.get(i) == '-';
+    if (negative) {
+      i++;
+    }
+    long units = 0;
+    long fractionUnits = 0;
+    int integerDigits = 0;
+    int fractionDigits = 0;
+    boolean fraction = false;
+    for (; i < to; i++) {
+      byte b = buffer.get(i);
+      if (isDigit(b)) {
+        if (fraction) {
+          fractionUnits = fractionUnits * 10 + (b - '0');
+          fractionDigits++;
+        } else {
+          units = units * 10 + (b - '0');
+          integerDigits++;
+        }
+      } else if (b == '.' && !fraction) {
+        fraction = true;
+      } else {
+        return parsePriceSlow(buffer, from, to);
+      }
+      if (integerDigits > MAX_FAST_PATH_INTEGER_DIGITS || fractionDigits > FixedPointPrice.SCALE) {
+        return parsePriceSlow(buffer, from, to);
+      }
+    }
+    if (integerDigits + fractionDigits == 0) {
+      throw malformed(buffer, from, to);
+    }
+    long value = units * FixedPointPrice.UNIT + fractionUnits * POW10[FixedPointPrice.SCALE - fractionDigits];
+    return negative ? -value : value;
+  }
+
+  private long parsePriceSlow(ByteBuffer buffer, int from, int to) {
+    try {
+      return FixedPointPrice.fromBigDecimal(new BigDecimal(new String(copy(buffer, from, to), StandardCharsets.US_ASCII)));
+    } catch (NumberFormatException | ArithmeticException e) {
+      throw malformed(buffer, from, to);
+    }
+  }
+
+  private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (buffer.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static IllegalArgumentException malformed(ByteBuffer buffer, int from, int to) {
+    return new IllegalArgumentException(
+      String.format("Malformed CSV price data: '%s'", new String(copy(buffer, from, to), StandardCharsets.US_ASCII)));
+  }
+
+  private static byte[] copy(ByteBuffer buffer, int from, int to) {
+    var bytes = new byte[to - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(from + i);
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,108 @@
+package com.xm.crypto.investment.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Progress of the startup load of price files, updated by {@link CsvFileParserService} while it runs.
+ * Progress is measured in bytes, rows before a file's checkpoint are not counted as they are not loaded again.
+ */
+@Component
+public class IngestProgress {
+
+  public enum State { PENDING, WAITING, RUNNING, COMPLETED, FAILED }
+
+  private volatile State state = State.PENDING;
+  private volatile int files;
+  private final AtomicInteger openedFiles = new AtomicInteger();
+  private final AtomicInteger completedFiles = new AtomicInteger();
+  private final LongAdder rows = new LongAdder();
+  private final AtomicLong bytesToLoad = new AtomicLong();
+  private final LongAdder storedBytes = new LongAdder();
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String error;
+
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Returns the share of the bytes to load that are stored, from 0 to 100.
+   */
+  public double getPercent() {
+    if (state == State.COMPLETED) {
+      return 100;
+    }
+    long total = bytesToLoad.get();
+    // the total is known once every file is opened
+    if (openedFiles.get() < files || total == 0) {
+      return 0;
+    }
+    return Math.min(100, storedBytes.sum() * 100.0 / total);
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(state, files, completedFiles.get(), rows.sum(), bytesToLoad.get(), storedBytes.sum(),
+      getPercent(), startedAt, finishedAt, error);
+  }
+
+  /**
+   * Marks the load as waiting for the ingest lock, which another replica may hold while loading.
+   */
+  void waiting() {
+    state = State.WAITING;
+  }
+
+  void start(int files) {
+    this.files = files;
+    startedAt = Instant.now();
+    state = State.RUNNING;
+  }
+
+  void addFile(long bytesToLoad) {
+    this.bytesToLoad.addAndGet(bytesToLoad);
+    openedFiles.incrementAndGet();
+  }
+
+  void fileCompleted() {
+    completedFiles.incrementAndGet();
+  }
+
+  void addRows(long rows) {
+    this.rows.add(rows);
+  }
+
+  void addStoredBytes(long bytes) {
+    storedBytes.add(bytes);
+  }
+
+  void complete() {
+    finishedAt = Instant.now();
+    state = State.COMPLETED;
+  }
+
+  void fail(Throwable e) {
+    finishedAt = Instant.now();
+    error = e.toString();
+    state = State.FAILED;
+  }
+
+  @Value
+  public static class Snapshot {
+    State state;
+    int files;
+    int completedFiles;
+    long rows;
+    long bytesToLoad;
+    long storedBytes;
+    double percent;
+    Instant startedAt;
+    Instant finishedAt;
+    String error;
+  }
+}
@@ -0,0 +1,120 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.model.IngestCheckpoint;
+import com.xm.crypto.investment.repository.CryptoDataPartitionRepository;
+import com.xm.crypto.investment.repository.IngestCheckpointRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the stored prices, derived from the ingestion checkpoints and the detached months so every replica
+ * sharing the database agrees on it. Refreshed after every ingestion of this replica, and of the other ones as
+ * announced on the cache invalidation channel. Unknown until the startup load is done.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestVersion implements MessageListener {
+
+  private final IngestCheckpointRepository ingestCheckpointRepository;
+  private final CryptoDataPartitionRepository cryptoDataPartitionRepository;
+
+  private volatile Version current;
+  private volatile boolean loaded;
+
+  /**
+   * Returns the current version, or null when it is not known yet.
+   */
+  public Version getCurrent() {
+    return current;
+  }
+
+  /**
+   * Refreshes the version once the cached responses are invalidated, so a new version is never
+   * served with a response computed from the previous prices.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE + 3)
+  public void onPricesIngested(PricesIngestedEvent event) {
+    loaded = true;
+    refresh();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    if (loaded) {
+      refresh();
+    }
+  }
+
+  void refresh() {
+    try {
+      current = Version.of(ingestCheckpointRepository.findAll(Sort.by("fileName")),
+        cryptoDataPartitionRepository.findRetention().orElse(null));
+      log.debug("refresh:: Ingest version {}", current.getId());
+    } catch (RuntimeException e) {
+      // without a version responses are served unconditionally rather than with a stale one
+      current = null;
+      log.warn("refresh:: Failed to load the ingest version", e);
+    }
+  }
+
+  /**
+   * Identity of the stored prices and the last time they changed, null before any file was ingested.
+   */
+  @Value
+  public static class Version {
+    String id;
+    Instant lastModified;
+
+    /**
+     * Hashes the name, offset and fingerprint of every checkpoint, which only change when prices are stored,
+     * so a replica replaying files on restart keeps the version of the others, and the month before which
+     * partitions were detached, if any. Checkpoint and retention times are UTC.
+     */
+    static Version of(List<IngestCheckpoint> checkpoints, CryptoDataPartitionRepository.Retention retention) {
+      var digest = sha256();
+      LocalDateTime updatedAt = null;
+      if (retention != null) {
+        digest.update(("detached-before\0" + retention.getDetachedBefore() + '\n').getBytes(StandardCharsets.UTF_8));
+        updatedAt = retention.getUpdatedAt();
+      }
+      for (IngestCheckpoint checkpoint : checkpoints) {
+        digest.update((checkpoint.getFileName() + '\0' + checkpoint.getByteOffset() + '\0'
+          + checkpoint.getFingerprint() + '\n').getBytes(StandardCharsets.UTF_8));
+        if (checkpoint.getUpdatedAt() != null && (updatedAt == null || checkpoint.getUpdatedAt().isAfter(updatedAt))) {
+          updatedAt = checkpoint.getUpdatedAt();
+        }
+      }
+      var id = new StringBuilder(32);
+      var hash = digest.digest();
+      for (int i = 0; i < 16; i++) {
+        id.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+      }
+      return new Version(id.toString(), updatedAt == null ? null : updatedAt.toInstant(ZoneOffset.UTC));
+    }
+
+    private static MessageDigest sha256() {
+      try {
+        return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+final class NormalizedRanges {
+
+  private NormalizedRanges() {
+  }
+
+  /**
+   * Calculates the normalized range (i.e. (max-min)/min) of fixed-point prices, zero when the min price is zero.
+   * The result has the scale of max-min, rounded half-even.
+   */
+  static BigDecimal of(long minPrice, long maxPrice) {
+    if (minPrice == 0) {
+      return BigDecimal.ZERO;
+    }
+    var min = FixedPointPrice.toBigDecimal(minPrice);
+    var max = FixedPointPrice.toBigDecimal(maxPrice);
+    return (max.subtract(min)).divide(min, RoundingMode.HALF_EVEN);
+  }
+}
@@ -0,0 +1,129 @@
+package com.xm.crypto.investment.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.springframework.core.io.Resource;
+
+/**
+ * Random access to the bytes of a price file. Files on the file system are memory-mapped or read
+ * with positional reads, other resources (e.g. classpath entries of a jar) are first streamed to a
+ * temporary file deleted on close, so they are never held in memory as a whole.
+ * Ranges may be read from several threads at once.
+ */
+final class PriceFileContent implements Closeable {
+
+  private static final int FINGERPRINT_WINDOW = 64 * 1024;
+
+  private final FileChannel channel;
+  private final byte[] bytes;
+  private final boolean memoryMapped;
+
+  private PriceFileContent(FileChannel channel, byte[] bytes, boolean memoryMapped) {
+    this.channel = channel;
+    this.bytes = bytes;
+    this.memoryMapped = memoryMapped;
+  }
+
+  static PriceFileContent open(Resource resource, boolean memoryMapped) throws IOException {
+    if (resource.isFile()) {
+      return open(resource.getFile().toPath(), memoryMapped);
+    }
+    var spool = Files.createTempFile("price-file-", ".csv");
+    try (InputStream inputStream = resource.getInputStream()) {
+      Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+      return new PriceFileContent(
+        FileChannel.open(spool, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE), null, memoryMapped);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(spool);
+      throw e;
+    }
+  }
+
+  static PriceFileContent open(Path path, boolean memoryMapped) throws IOException {
+    return new PriceFileContent(FileChannel.open(path, StandardOpenOption.READ), null, memoryMapped);
+  }
+
+  static PriceFileContent of(byte[] bytes) {
+    return new PriceFileContent(null, bytes, false);
+  }
+
+  long size() throws IOException {
+    return channel != null ? channel.size() : bytes.length;
+  }
+
+  /**
+   * Returns the bytes of {@code [from, to)}, the range must not exceed {@link Integer#MAX_VALUE} bytes.
+   */
+  ByteBuffer slice(long from, long to) throws IOException {
+    int length = Math.toIntExact(to - from);
+    if (channel == null) {
+      return ByteBuffer.wrap(bytes, (int) from, length).slice();
+    }
+    if (memoryMapped) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+    }
+    var buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, from + buffer.position()) < 0) {
+        break;
+      }
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Returns the position right after the first line feed at or after {@code position},
+   * or the size if there is none. Used to split content at line boundaries.
+   */
+  long nextLineStart(long position) throws IOException {
+    long size = size();
+    while (position < size) {
+      var window = slice(position, Math.min(size, position + 4096));
+      for (int i = 0; i < window.limit(); i++) {
+        if (window.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += window.limit();
+    }
+    return size;
+  }
+
+  /**
+   * Fingerprints the first {@code length} bytes by hashing their first and last 64 KiB together
+   * with the length. Reading a bounded amount keeps checkpoint validation cheap for huge files
+   * while still detecting files that were rewritten rather than appended to.
+   */
+  String fingerprint(long length) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, length));
+    digest.update(slice(0, Math.min(length, FINGERPRINT_WINDOW)));
+    digest.update(slice(Math.max(0, length - FINGERPRINT_WINDOW), length));
+    var hash = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hash.append(String.format("%02x", b));
+    }
+    return hash.toString();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.xm.crypto.investment.service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the directory of {@code crypto.location-pattern} once the initial load is done and
+ * ingests rows appended to price files, or new price files, in micro-batches.
+ * Only patterns resolving to a file system directory can be followed.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.ingest.watch.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PriceFileWatcher {
+
+  private final CsvFileParserService csvFileParserService;
+
+  @Value("${crypto.location-pattern}")
+  private String cryptoLocationPattern;
+  @Value("${crypto.ingest.watch.poll-interval:5s}")
+  private Duration pollInterval;
+
+  private WatchService watchService;
+  private Thread watchThread;
+
+  @EventListener(condition = "#event.initialLoad")
+  public synchronized void onInitialLoad(PricesIngestedEvent event) {
+    if (watchThread != null) {
+      return;
+    }
+    var separator = cryptoLocationPattern.lastIndexOf('/');
+    Path directory;
+    try {
+      directory = new PathMatchingResourcePatternResolver()
+        .getResource(cryptoLocationPattern.substring(0, separator + 1)).getFile().toPath();
+      watchService = FileSystems.getDefault().newWatchService();
+      directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      log.warn("onInitialLoad:: {} is not a file system directory, live ingestion is disabled", cryptoLocationPattern, e);
+      return;
+    }
+    var fileMatcher = FileSystems.getDefault()
+      .getPathMatcher("glob:" + cryptoLocationPattern.substring(separator + 1));
+    watchThread = new Thread(() -> watch(directory, fileMatcher), "price-file-watcher");
+    watchThread.setDaemon(true);
+    watchThread.start();
+    log.info("onInitialLoad:: Following price files in {}", directory);
+  }
+
+  @PreDestroy
+  public synchronized void stop() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+
+  /**
+   * Collects changed files until no event arrives for a poll interval, or for at most one poll
+   * interval under a steady feed, then ingests them, so a file written in many small appends
+   * is read once per micro-batch.
+   */
+  private void watch(Path directory, PathMatcher fileMatcher) {
+    Set<Path> changedFiles = new LinkedHashSet<>();
+    long pendingSince = 0;
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        var key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (key != null) {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path && fileMatcher.matches((Path) event.context())) {
+              if (changedFiles.isEmpty()) {
+                pendingSince = System.nanoTime();
+              }
+              changedFiles.add(directory.resolve((Path) event.context()));
+            }
+          }
+          key.reset();
+        }
+        if (!changedFiles.isEmpty() && (key == null || System.nanoTime() - pendingSince >= pollInterval.toNanos())) {
+          changedFiles.forEach(this::ingest);
+          changedFiles.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      log.info("watch:: Stopped following price files in {}", directory);
+    }
+  }
+
+  private void ingest(Path file) {
+    try {
+      if (csvFileParserService.ingestAppendedLines(file)) {
+        log.info("ingest:: Stored new prices of {}", file.getFileName());
+      }
+    } catch (IOException | RuntimeException e) {
+      log.error("ingest:: Failed to ingest appended prices of {}", file, e);
+    }
+  }
+}
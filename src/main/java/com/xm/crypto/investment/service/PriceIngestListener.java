@@ -0,0 +1,32 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.model.PriceBatch;
+import java.util.function.LongFunction;
+
+/**
+ * Callback for components keeping in-process state derived from ingested prices.
+ * Invoked by {@link CsvFileParserService} after every persisted batch, possibly from several
+ * parser threads at once.
+ */
+public interface PriceIngestListener {
+
+  void onPrices(PriceBatch prices);
+
+  /**
+   * Returns the byte offset of a price file up to which this listener already holds its prices, e.g. restored
+   * from a snapshot, so replaying the file to in-process listeners starts there.
+   *
+   * @param fileName    name of the price file
+   * @param fingerprint fingerprint of the first given bytes of the file as it is now,
+   *                    {@code null} if the file is shorter
+   */
+  default long heldOffset(String fileName, LongFunction<String> fingerprint) {
+    return 0;
+  }
+
+  /**
+   * Called once every price of a file before the given byte offset was passed to {@link #onPrices}.
+   */
+  default void onFileIngested(String fileName, long byteOffset, String fingerprint) {
+  }
+}
@@ -0,0 +1,22 @@
+package com.xm.crypto.investment.service;
+
+import java.time.LocalDateTime;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published on every replica after the startup load when months of crypto_data are detached, whether by this
+ * replica or an earlier one, so in-process copies of the prices drop the detached months too.
+ */
+public class PricesDetachedEvent extends ApplicationEvent {
+
+  private final LocalDateTime detachedBefore;
+
+  public PricesDetachedEvent(Object source, LocalDateTime detachedBefore) {
+    super(source);
+    this.detachedBefore = detachedBefore;
+  }
+
+  public LocalDateTime getDetachedBefore() {
+    return detachedBefore;
+  }
+}
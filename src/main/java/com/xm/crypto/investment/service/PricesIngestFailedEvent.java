@@ -0,0 +1,20 @@
+package com.xm.crypto.investment.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the startup load fails or is interrupted, so components waiting for it stop waiting.
+ */
+public class PricesIngestFailedEvent extends ApplicationEvent {
+
+  private final Throwable error;
+
+  public PricesIngestFailedEvent(Object source, Throwable error) {
+    super(source);
+    this.error = error;
+  }
+
+  public Throwable getError() {
+    return error;
+  }
+}
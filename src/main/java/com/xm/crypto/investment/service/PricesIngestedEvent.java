@@ -0,0 +1,29 @@
+package com.xm.crypto.investment.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after the startup load and after every live micro-batch storing new prices.
+ * A replica whose startup load found every file already stored by another one publishes
+ * it without stored prices. Months detached after the startup load count as stored prices,
+ * as they change what is served.
+ */
+public class PricesIngestedEvent extends ApplicationEvent {
+
+  private final boolean initialLoad;
+  private final boolean pricesStored;
+
+  public PricesIngestedEvent(Object source, boolean initialLoad, boolean pricesStored) {
+    super(source);
+    this.initialLoad = initialLoad;
+    this.pricesStored = pricesStored;
+  }
+
+  public boolean isInitialLoad() {
+    return initialLoad;
+  }
+
+  public boolean isPricesStored() {
+    return pricesStored;
+  }
+}
@@ -0,0 +1,16 @@
+package com.xm.crypto.investment.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.Value;
+
+/**
+ * Normalized range (i.e. (max-min)/min) of a crypto over the days [windowStart, windowEnd).
+ */
+@Value
+public class RollingNormalizedRange {
+  String symbol;
+  LocalDate windowStart;
+  LocalDate windowEnd;
+  BigDecimal normalizedPrice;
+}
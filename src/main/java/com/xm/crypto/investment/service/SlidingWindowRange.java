@@ -0,0 +1,136 @@
+package com.xm.crypto.investment.service;
+
+/**
+ * Min and max prices of a crypto over equally sized windows starting at a fixed step, computed in
+ * one pass over its time-ordered prices. Each price enters and leaves the monotonic min and max
+ * deques once, so the cost is linear in the number of prices whatever the number of windows.
+ */
+final class SlidingWindowRange {
+
+  private final long firstStart;
+  private final long windowMillis;
+  private final long stepMillis;
+  private final int windowCount;
+  private final WindowConsumer consumer;
+  private final PriceDeque minDeque = new PriceDeque();
+  private final PriceDeque maxDeque = new PriceDeque();
+  private int nextWindow;
+
+  /**
+   * @param firstStart   start of the first window, epoch millis
+   * @param windowMillis length of a window, its end is exclusive
+   * @param stepMillis   distance between the starts of consecutive windows
+   * @param windowCount  number of windows
+   * @param consumer     receives each window holding at least one price, in window order
+   */
+  SlidingWindowRange(long firstStart, long windowMillis, long stepMillis, int windowCount, WindowConsumer consumer) {
+    this.firstStart = firstStart;
+    this.windowMillis = windowMillis;
+    this.stepMillis = stepMillis;
+    this.windowCount = windowCount;
+    this.consumer = consumer;
+  }
+
+  /**
+   * Adds the next price, timestamps must not decrease between calls.
+   */
+  void add(long timestamp, long price) {
+    while (nextWindow < windowCount && windowStart(nextWindow) + windowMillis <= timestamp) {
+      complete(nextWindow++);
+    }
+    if (nextWindow == windowCount || timestamp < firstStart) {
+      return;
+    }
+    while (!minDeque.isEmpty() && minDeque.lastPrice() >= price) {
+      minDeque.removeLast();
+    }
+    minDeque.addLast(timestamp, price);
+    while (!maxDeque.isEmpty() && maxDeque.lastPrice() <= price) {
+      maxDeque.removeLast();
+    }
+    maxDeque.addLast(timestamp, price);
+  }
+
+  /**
+   * Completes the windows not completed by a later price.
+   */
+  void finish() {
+    while (nextWindow < windowCount) {
+      complete(nextWindow++);
+    }
+  }
+
+  private void complete(int window) {
+    long start = windowStart(window);
+    minDeque.removeBefore(start);
+    maxDeque.removeBefore(start);
+    if (!minDeque.isEmpty()) {
+      consumer.accept(window, minDeque.firstPrice(), maxDeque.firstPrice());
+    }
+  }
+
+  private long windowStart(int window) {
+    return firstStart + window * stepMillis;
+  }
+
+  @FunctionalInterface
+  interface WindowConsumer {
+    void accept(int window, long minPrice, long maxPrice);
+  }
+
+  /**
+   * Growable ring buffer of (timestamp, price) pairs.
+   */
+  private static final class PriceDeque {
+
+    private long[] timestamps = new long[64];
+    private long[] prices = new long[64];
+    private int head;
+    private int size;
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    long firstPrice() {
+      return prices[head];
+    }
+
+    long lastPrice() {
+      return prices[(head + size - 1) & (prices.length - 1)];
+    }
+
+    void addLast(long timestamp, long price) {
+      if (size == prices.length) {
+        grow();
+      }
+      int tail = (head + size++) & (prices.length - 1);
+      timestamps[tail] = timestamp;
+      prices[tail] = price;
+    }
+
+    void removeLast() {
+      size--;
+    }
+
+    void removeBefore(long timestamp) {
+      while (size > 0 && timestamps[head] < timestamp) {
+        head = (head + 1) & (prices.length - 1);
+        size--;
+      }
+    }
+
+    private void grow() {
+      var grownTimestamps = new long[timestamps.length * 2];
+      var grownPrices = new long[prices.length * 2];
+      for (int i = 0; i < size; i++) {
+        int index = (head + i) & (prices.length - 1);
+        grownTimestamps[i] = timestamps[index];
+        grownPrices[i] = prices[index];
+      }
+      timestamps = grownTimestamps;
+      prices = grownPrices;
+      head = 0;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.repository.CryptoDailySummaryRepository;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process set of the symbols of every crypto having prices, so statistics of unknown symbols are
+ * rejected without a cache or database round-trip. Reloaded from the rollup after every ingestion of
+ * this replica, and of the other ones as announced on the cache invalidation channel.
+ * Every symbol is accepted until the startup load is done, as the set is not complete before.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SymbolRegistry implements MessageListener {
+
+  private final CryptoDailySummaryRepository cryptoDailySummaryRepository;
+
+  // sorted, replaced as a whole so readers never see a partial update
+  private volatile Set<String> symbols = Set.of();
+  private volatile boolean complete;
+
+  /**
+   * Returns whether the symbol may have prices: always before the startup load is done, afterwards only
+   * when a crypto of that symbol was ingested.
+   *
+   * @param symbol upper case crypto symbol (e.g BTC)
+   */
+  public boolean isSupported(String symbol) {
+    return !complete || symbols.contains(symbol);
+  }
+
+  /**
+   * Returns the sorted symbols known so far.
+   */
+  public List<String> getSymbols() {
+    return List.copyOf(symbols);
+  }
+
+  /**
+   * Reloads the symbols once the rollup of the ingested prices is refreshed, before listeners
+   * warming up the cache run.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+  public void onPricesIngested(PricesIngestedEvent event) {
+    update(cryptoDailySummaryRepository.findSymbols(), event.isInitialLoad());
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    update(cryptoDailySummaryRepository.findSymbols(), false);
+  }
+
+  void update(Collection<String> loadedSymbols, boolean loadCompleted) {
+    var sorted = new LinkedHashSet<String>(loadedSymbols.size());
+    loadedSymbols.stream().sorted().forEach(sorted::add);
+    symbols = Collections.unmodifiableSet(sorted);
+    if (loadCompleted) {
+      complete = true;
+    }
+    log.debug("update:: Registered {} symbols", sorted.size());
+  }
+}
@@ -0,0 +1,51 @@
+package com.xm.crypto.investment.service;
+
+import com.xm.crypto.investment.model.PriceBatch;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe accumulator of the UTC day range touched per crypto during an ingestion run.
+ */
+public final class TouchedDays {
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final Map<String, long[]> dayRangeBySymbol = new ConcurrentHashMap<>();
+
+  public void add(PriceBatch batch) {
+    batch.forEachSymbolRun((symbol, from, to) -> addRun(batch, symbol, from, to));
+  }
+
+  public boolean isEmpty() {
+    return dayRangeBySymbol.isEmpty();
+  }
+
+  public void forEach(DayRangeConsumer consumer) {
+    dayRangeBySymbol.forEach((symbol, range) ->
+      consumer.accept(symbol, LocalDate.ofEpochDay(range[0]), LocalDate.ofEpochDay(range[1])));
+  }
+
+  private void addRun(PriceBatch batch, String symbol, int from, int to) {
+    long minDay = Long.MAX_VALUE;
+    long maxDay = Long.MIN_VALUE;
+    for (int i = from; i < to; i++) {
+      long day = Math.floorDiv(batch.getTimestamp(i), MILLIS_PER_DAY);
+      minDay = Math.min(minDay, day);
+      maxDay = Math.max(maxDay, day);
+    }
+    dayRangeBySymbol.merge(symbol, new long[] {minDay, maxDay},
+      (range, run) -> new long[] {Math.min(range[0], run[0]), Math.max(range[1], run[1])});
+  }
+
+  @FunctionalInterface
+  public interface DayRangeConsumer {
+    /**
+     * @param symbol  crypto symbol
+     * @param fromDay first touched day
+     * @param toDay   last touched day (inclusive)
+     */
+    void accept(String symbol, LocalDate fromDay, LocalDate toDay);
+  }
+}
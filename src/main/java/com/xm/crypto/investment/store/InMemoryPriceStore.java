@@ -0,0 +1,233 @@
+package com.xm.crypto.investment.store;
+
+import com.xm.crypto.investment.model.PriceBatch;
+import com.xm.crypto.investment.repository.CryptoPriceSource;
+import com.xm.crypto.investment.repository.CryptoSummarySource;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import com.xm.crypto.investment.service.PriceIngestListener;
+import com.xm.crypto.investment.service.PricesDetachedEvent;
+import com.xm.crypto.investment.service.PricesIngestFailedEvent;
+import com.xm.crypto.investment.service.PricesIngestedEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process columnar copy of all prices, filled while CSV files are loaded.
+ * Postgres stays the system of record, this store only serves reads when
+ * {@code crypto.read-backend} is set to {@code memory}.
+ * Ingested batches are appended to per-crypto buffers and merged into the series once per
+ * {@link PricesIngestedEvent} or {@link PricesIngestFailedEvent}, so a load copies the columns and builds the range
+ * index once rather than per batch.
+ * With {@code crypto.store.snapshot.enabled}, the store is written to a {@link PriceStoreSnapshot} after the
+ * startup load and restored from it on the next start, so only rows appended to price files since are replayed.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.read-backend", havingValue = "memory")
+@Slf4j
+public class InMemoryPriceStore implements CryptoSummarySource, CryptoPriceSource, PriceIngestListener {
+
+  private final Map<String, PriceSeries> seriesBySymbol = new ConcurrentHashMap<>();
+  private final Map<String, PriceBuffer> pendingBySymbol = new ConcurrentHashMap<>();
+  private final Map<String, PriceStoreSnapshot.FileOffset> fileOffsets = new ConcurrentHashMap<>();
+
+  @Value("${crypto.store.snapshot.enabled:false}")
+  private boolean snapshotEnabled;
+  @Value("${crypto.store.snapshot.path:data/price-store.snapshot}")
+  private Path snapshotPath;
+
+  /**
+   * Restores the snapshot, if any, before price files are loaded. A snapshot failing validation is ignored
+   * and every price file is replayed.
+   */
+  @PostConstruct
+  public void restoreSnapshot() {
+    if (!snapshotEnabled || !Files.exists(snapshotPath)) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      var snapshot = PriceStoreSnapshot.read(snapshotPath);
+      snapshot.getSeries().forEach(series -> seriesBySymbol.put(series.getSymbol(), series));
+      fileOffsets.putAll(snapshot.getFileOffsets());
+      log.info("restoreSnapshot:: Restored {} cryptos of {} from {} in {} ms", seriesBySymbol.size(),
+        snapshot.getCreatedAt(), snapshotPath, (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException | RuntimeException e) {
+      log.warn("restoreSnapshot:: Ignoring snapshot {}, price files are replayed in full", snapshotPath, e);
+    }
+  }
+
+  /**
+   * Merges the prices buffered since the last ingestion into the series, before the cache is invalidated
+   * and the snapshot is written.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onPricesIngested(PricesIngestedEvent event) {
+    mergePending();
+  }
+
+  /**
+   * Merges the prices buffered before a failed load, as the rows stored so far are kept in Postgres too.
+   * Replaying them later replaces the merged prices of equal timestamps.
+   */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onIngestFailed(PricesIngestFailedEvent event) {
+    mergePending();
+  }
+
+  /**
+   * Drops the prices of detached months, before the startup load is announced and the snapshot is written.
+   */
+  @EventListener
+  public void onPricesDetached(PricesDetachedEvent event) {
+    mergePending();
+    long fromMillis = toEpochMilli(event.getDetachedBefore());
+    seriesBySymbol.replaceAll((symbol, series) -> series.dropBefore(fromMillis));
+    seriesBySymbol.values().removeIf(series -> series.size() == 0);
+    log.info("onPricesDetached:: Dropped the prices before {}", event.getDetachedBefore());
+  }
+
+  /**
+   * Merges the buffered prices of every crypto into its series.
+   *
+   * @return number of merged prices
+   */
+  public long mergePending() {
+    long merged = 0;
+    for (String symbol : pendingBySymbol.keySet()) {
+      // removal waits for an append in progress, later ones go to a new buffer
+      var pending = pendingBySymbol.remove(symbol);
+      if (pending != null) {
+        seriesBySymbol.compute(symbol, (key, series) ->
+          (series != null ? series : PriceSeries.empty(key)).merge(pending.timestamps, pending.prices, pending.size));
+        merged += pending.size;
+      }
+    }
+    log.debug("mergePending:: Merged {} buffered prices", merged);
+    return merged;
+  }
+
+  /**
+   * Writes the snapshot once the startup load is done. Offsets are copied before the series, so the
+   * snapshot never claims rows it does not hold; rows appended later are replayed on the next start.
+   */
+  @EventListener(condition = "#event.initialLoad")
+  public void writeSnapshot(PricesIngestedEvent event) {
+    if (!snapshotEnabled) {
+      return;
+    }
+    var offsets = new LinkedHashMap<>(fileOffsets);
+    var series = new ArrayList<>(seriesBySymbol.values());
+    try {
+      long size = PriceStoreSnapshot.write(snapshotPath, series, offsets);
+      log.info("writeSnapshot:: Wrote {} cryptos, {} bytes to {}", series.size(), size, snapshotPath);
+    } catch (IOException e) {
+      log.warn("writeSnapshot:: Failed to write snapshot {}", snapshotPath, e);
+    }
+  }
+
+  @Override
+  public void onPrices(PriceBatch prices) {
+    prices.forEachSymbolRun((symbol, from, to) -> pendingBySymbol.compute(symbol, (key, pending) -> {
+      var buffer = pending != null ? pending : new PriceBuffer();
+      buffer.append(prices, from, to);
+      return buffer;
+    }));
+    log.debug("onPrices:: Buffered {} prices in memory", prices.size());
+  }
+
+  @Override
+  public long heldOffset(String fileName, LongFunction<String> fingerprint) {
+    var held = fileOffsets.get(fileName);
+    if (held == null) {
+      return 0;
+    }
+    if (!held.getFingerprint().equals(fingerprint.apply(held.getByteOffset()))) {
+      log.info("heldOffset:: {} changed since the snapshot, replaying it from the start", fileName);
+      return 0;
+    }
+    return held.getByteOffset();
+  }
+
+  @Override
+  public void onFileIngested(String fileName, long byteOffset, String fingerprint) {
+    fileOffsets.put(fileName, new PriceStoreSnapshot.FileOffset(byteOffset, fingerprint));
+  }
+
+  @Override
+  public List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var fromMillis = toEpochMilli(dateFrom);
+    var toMillis = toEpochMilli(dateTo);
+    return seriesBySymbol.values().stream()
+      .map(series -> series.summarize(fromMillis, toMillis))
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo) {
+    return Optional.ofNullable(seriesBySymbol.get(symbol))
+      .map(series -> series.summarize(toEpochMilli(dateFrom), toEpochMilli(dateTo)));
+  }
+
+  @Override
+  public void scan(Collection<String> symbols, LocalDateTime dateFrom, LocalDateTime dateTo, PriceConsumer consumer) {
+    var fromMillis = toEpochMilli(dateFrom);
+    var toMillis = toEpochMilli(dateTo);
+    seriesBySymbol.values().stream()
+      .filter(series -> symbols.isEmpty() || symbols.contains(series.getSymbol()))
+      .sorted(Comparator.comparing(PriceSeries::getSymbol))
+      .forEach(series -> series.forEach(fromMillis, toMillis, consumer));
+  }
+
+  private static long toEpochMilli(LocalDateTime dateTime) {
+    return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  /**
+   * Growable columns of the prices of a crypto not merged yet, in ingestion order.
+   */
+  private static final class PriceBuffer {
+
+    private long[] timestamps = new long[1024];
+    private long[] prices = new long[1024];
+    private int size;
+
+    void append(PriceBatch batch, int from, int to) {
+      int length = to - from;
+      if (size + length > timestamps.length) {
+        int capacity = Math.max(size + length, timestamps.length * 2);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+      }
+      for (int i = from; i < to; i++) {
+        timestamps[size] = batch.getTimestamp(i);
+        prices[size++] = batch.getPrice(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,315 @@
+package com.xm.crypto.investment.store;
+
+import com.xm.crypto.investment.repository.CryptoPriceSource;
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Sealed, compressed prices of a single crypto over a closed period, encoded as in Facebook's Gorilla:
+ * timestamps as delta-of-deltas and prices as the XOR with the previous price, both in a bit stream.
+ * The header holds the count, first/last timestamp and min/max/first/last price, so a block lying
+ * entirely inside a window is summarized without decoding it.
+ * Timestamps must be strictly ascending, prices are fixed-point longs.
+ */
+public final class PriceBlock {
+
+  private static final byte VERSION = 1;
+  static final int HEADER_BYTES = 1 + Integer.BYTES + 6 * Long.BYTES;
+
+  private final int count;
+  private final long firstTimestamp;
+  private final long lastTimestamp;
+  private final long minPrice;
+  private final long maxPrice;
+  private final long firstPrice;
+  private final long lastPrice;
+  private final byte[] bytes;
+
+  private PriceBlock(int count, long firstTimestamp, long lastTimestamp,
+                     long minPrice, long maxPrice, long firstPrice, long lastPrice, byte[] bytes) {
+    this.count = count;
+    this.firstTimestamp = firstTimestamp;
+    this.lastTimestamp = lastTimestamp;
+    this.minPrice = minPrice;
+    this.maxPrice = maxPrice;
+    this.firstPrice = firstPrice;
+    this.lastPrice = lastPrice;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Encodes the first length prices of the given columns.
+   */
+  public static PriceBlock encode(long[] timestamps, long[] prices, int length) {
+    if (length == 0) {
+      throw new IllegalArgumentException("A block holds at least one price");
+    }
+    long min = prices[0];
+    long max = prices[0];
+    var bits = new BitWriter(HEADER_BYTES + length * 2);
+    bits.skipBytes(HEADER_BYTES);
+    long previousDelta = 0;
+    int previousLeading = -1;
+    int previousTrailing = 0;
+    for (int i = 1; i < length; i++) {
+      long delta = timestamps[i] - timestamps[i - 1];
+      if (delta <= 0) {
+        throw new IllegalArgumentException("Timestamps must be strictly ascending at " + timestamps[i]);
+      }
+      writeDeltaOfDelta(bits, delta - previousDelta);
+      previousDelta = delta;
+
+      min = Math.min(min, prices[i]);
+      max = Math.max(max, prices[i]);
+      long xor = prices[i] ^ prices[i - 1];
+      if (xor == 0) {
+        bits.write(0, 1);
+        continue;
+      }
+      int leading = Long.numberOfLeadingZeros(xor);
+      int trailing = Long.numberOfTrailingZeros(xor);
+      if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+        // meaningful bits fit in the window of the previous value
+        bits.write(0b10, 2);
+        bits.write(xor >>> previousTrailing, Long.SIZE - previousLeading - previousTrailing);
+      } else {
+        int meaningful = Long.SIZE - leading - trailing;
+        bits.write(0b11, 2);
+        bits.write(leading, 6);
+        bits.write(meaningful - 1, 6);
+        bits.write(xor >>> trailing, meaningful);
+        previousLeading = leading;
+        previousTrailing = trailing;
+      }
+    }
+    var bytes = bits.toByteArray();
+    ByteBuffer.wrap(bytes).put(VERSION).putInt(length)
+      .putLong(timestamps[0]).putLong(timestamps[length - 1])
+      .putLong(min).putLong(max).putLong(prices[0]).putLong(prices[length - 1]);
+    return new PriceBlock(length, timestamps[0], timestamps[length - 1], min, max, prices[0], prices[length - 1], bytes);
+  }
+
+  /**
+   * Reads a block written by {@link #toBytes()}.
+   */
+  public static PriceBlock fromBytes(byte[] bytes) {
+    var buffer = ByteBuffer.wrap(bytes);
+    if (bytes.length < HEADER_BYTES || buffer.get() != VERSION) {
+      throw new IllegalArgumentException("Not a price block of version " + VERSION);
+    }
+    return new PriceBlock(buffer.getInt(), buffer.getLong(), buffer.getLong(),
+      buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), bytes);
+  }
+
+  /**
+   * Rebuilds a block from its header alone, as stored next to the encoded prices. Such a block
+   * summarizes windows covering it or not overlapping it, but cannot be decoded.
+   */
+  public static PriceBlock ofHeader(int count, long firstTimestamp, long lastTimestamp,
+                                    long minPrice, long maxPrice, long firstPrice, long lastPrice) {
+    return new PriceBlock(count, firstTimestamp, lastTimestamp, minPrice, maxPrice, firstPrice, lastPrice, null);
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public long getFirstTimestamp() {
+    return firstTimestamp;
+  }
+
+  public long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  public long getMinPrice() {
+    return minPrice;
+  }
+
+  public long getMaxPrice() {
+    return maxPrice;
+  }
+
+  public long getFirstPrice() {
+    return firstPrice;
+  }
+
+  public long getLastPrice() {
+    return lastPrice;
+  }
+
+  /**
+   * Returns the encoded block, header included.
+   */
+  public byte[] toBytes() {
+    if (bytes == null) {
+      throw new IllegalStateException("Block was read without its prices");
+    }
+    return Arrays.copyOf(bytes, bytes.length);
+  }
+
+  /**
+   * Calculates oldest/newest/min/max for prices between the given epoch millis (both inclusive).
+   * Only a window cutting through the block decodes it.
+   *
+   * @return the summary or {@code null} if there is no price in the window
+   */
+  public CryptoSummary summarize(String symbol, long fromMillis, long toMillis) {
+    if (fromMillis > lastTimestamp || toMillis < firstTimestamp) {
+      return null;
+    }
+    if (fromMillis <= firstTimestamp && toMillis >= lastTimestamp) {
+      return new CryptoSummary(symbol, minPrice, maxPrice, firstPrice, lastPrice);
+    }
+    var summary = new long[4];
+    var found = new boolean[1];
+    forEach(symbol, fromMillis, toMillis, (ignored, timestamp, price) -> {
+      if (!found[0]) {
+        found[0] = true;
+        summary[0] = price;
+        summary[1] = price;
+        summary[2] = price;
+      }
+      summary[0] = Math.min(summary[0], price);
+      summary[1] = Math.max(summary[1], price);
+      summary[3] = price;
+    });
+    return found[0] ? new CryptoSummary(symbol, summary[0], summary[1], summary[2], summary[3]) : null;
+  }
+
+  /**
+   * Decodes the prices between the given epoch millis (both inclusive) and passes them to the consumer in time order.
+   */
+  public void forEach(String symbol, long fromMillis, long toMillis, CryptoPriceSource.PriceConsumer consumer) {
+    if (bytes == null) {
+      throw new IllegalStateException("Block was read without its prices");
+    }
+    var bits = new BitReader(bytes, HEADER_BYTES);
+    long timestamp = firstTimestamp;
+    long price = firstPrice;
+    long delta = 0;
+    int leading = 0;
+    int trailing = 0;
+    for (int i = 0; i < count && timestamp <= toMillis; i++) {
+      if (i > 0) {
+        delta += readDeltaOfDelta(bits);
+        timestamp += delta;
+        if (bits.read(1) == 1) {
+          if (bits.read(1) == 1) {
+            leading = (int) bits.read(6);
+            int meaningful = (int) bits.read(6) + 1;
+            trailing = Long.SIZE - leading - meaningful;
+          }
+          price ^= bits.read(Long.SIZE - leading - trailing) << trailing;
+        }
+      }
+      if (timestamp >= fromMillis && timestamp <= toMillis) {
+        consumer.accept(symbol, timestamp, price);
+      }
+    }
+  }
+
+  /**
+   * Writes a delta-of-delta with the variable length prefixes of Gorilla, widened for millisecond
+   * timestamps: '0' for an unchanged interval, then 7, 9 and 12 bit two's complement values and 64 bits.
+   */
+  private static void writeDeltaOfDelta(BitWriter bits, long deltaOfDelta) {
+    if (deltaOfDelta == 0) {
+      bits.write(0, 1);
+    } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+      bits.write(0b10, 2);
+      bits.write(deltaOfDelta, 7);
+    } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+      bits.write(0b110, 3);
+      bits.write(deltaOfDelta, 9);
+    } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+      bits.write(0b1110, 4);
+      bits.write(deltaOfDelta, 12);
+    } else {
+      bits.write(0b1111, 4);
+      bits.write(deltaOfDelta, Long.SIZE);
+    }
+  }
+
+  private static long readDeltaOfDelta(BitReader bits) {
+    int prefix = 0;
+    while (prefix < 4 && bits.read(1) == 1) {
+      prefix++;
+    }
+    switch (prefix) {
+      case 0:
+        return 0;
+      case 1:
+        return signExtend(bits.read(7), 7);
+      case 2:
+        return signExtend(bits.read(9), 9);
+      case 3:
+        return signExtend(bits.read(12), 12);
+      default:
+        return bits.read(Long.SIZE);
+    }
+  }
+
+  private static long signExtend(long value, int bits) {
+    return value << (Long.SIZE - bits) >> (Long.SIZE - bits);
+  }
+
+  /**
+   * Appends values of up to 64 bits, most significant bit first.
+   */
+  private static final class BitWriter {
+    private byte[] buffer;
+    private long position;
+
+    private BitWriter(int capacity) {
+      buffer = new byte[capacity];
+    }
+
+    private void skipBytes(int length) {
+      position += (long) length * Byte.SIZE;
+    }
+
+    private void write(long value, int length) {
+      while (length > 0) {
+        int index = (int) (position >>> 3);
+        if (index >= buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int free = Byte.SIZE - (int) (position & 7);
+        int written = Math.min(free, length);
+        int chunk = (int) (value >>> (length - written)) & ((1 << written) - 1);
+        buffer[index] |= (byte) (chunk << (free - written));
+        position += written;
+        length -= written;
+      }
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(buffer, (int) ((position + 7) >>> 3));
+    }
+  }
+
+  private static final class BitReader {
+    private final byte[] buffer;
+    private long position;
+
+    private BitReader(byte[] buffer, int offset) {
+      this.buffer = buffer;
+      this.position = (long) offset * Byte.SIZE;
+    }
+
+    private long read(int length) {
+      long value = 0;
+      while (length > 0) {
+        int available = Byte.SIZE - (int) (position & 7);
+        int read = Math.min(available, length);
+        int chunk = ((buffer[(int) (position >>> 3)] & 0xFF) >>> (available - read)) & ((1 << read) - 1);
+        value = value << read | chunk;
+        position += read;
+        length -= read;
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.xm.crypto.investment.store;
+
+import com.xm.crypto.investment.repository.CryptoDataRepository;
+import com.xm.crypto.investment.repository.CryptoPriceBlockRepository;
+import com.xm.crypto.investment.repository.CryptoSummarySource;
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import com.xm.crypto.investment.service.PricesIngestedEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read backend answering from compressed {@link PriceBlock}s of closed days, selected by setting
+ * {@code crypto.read-backend} to {@code blocks}. Days before the current UTC day are sealed after every
+ * ingestion storing prices; prices from the start of the first unsealed day on are aggregated from crypto_data.
+ * Blocks covered by a window are summarized from their header, only the ones at its boundaries are decoded.
+ */
+@Component
+@ConditionalOnProperty(name = "crypto.read-backend", havingValue = "blocks")
+@RequiredArgsConstructor
+@Slf4j
+public class PriceBlockStore implements CryptoSummarySource {
+
+  private final CryptoPriceBlockRepository cryptoPriceBlockRepository;
+  private final CryptoDataRepository cryptoDataRepository;
+
+  // prices before this instant are sealed, later ones are read from crypto_data
+  private volatile LocalDateTime sealedUntil = LocalDateTime.MIN;
+
+  /**
+   * Seals the closed days which received prices, before the cache is invalidated.
+   */
+  @EventListener(condition = "#event.pricesStored")
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onPricesIngested(PricesIngestedEvent event) {
+    sealClosedDays();
+  }
+
+  /**
+   * Reads the blocks sealed by other replicas or a previous run when the startup load stored no prices,
+   * without sealing again.
+   */
+  @EventListener(condition = "#event.initialLoad && !#event.pricesStored")
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onInitialLoadWithoutPrices(PricesIngestedEvent event) {
+    cryptoPriceBlockRepository.findSealedUntil().ifPresent(day -> {
+      sealedUntil = day.atTime(LocalTime.MIN);
+      log.info("onInitialLoadWithoutPrices:: Reading blocks sealed before {}", day);
+    });
+  }
+
+  /**
+   * Seals every day before the current UTC day having no block or a stale one.
+   *
+   * @return number of sealed days
+   */
+  public int sealClosedDays() {
+    var dayBefore = LocalDate.now(ZoneOffset.UTC);
+    var unsealedDays = cryptoPriceBlockRepository.findUnsealedDays(dayBefore);
+    long prices = 0;
+    for (CryptoPriceBlockRepository.BlockDay blockDay : unsealedDays) {
+      prices += cryptoPriceBlockRepository.seal(blockDay.getSymbol(), blockDay.getDay());
+    }
+    cryptoPriceBlockRepository.saveSealedUntil(dayBefore);
+    sealedUntil = dayBefore.atTime(LocalTime.MIN);
+    log.info("sealClosedDays:: Sealed {} prices of {} crypto days before {}", prices, unsealedDays.size(), dayBefore);
+    return unsealedDays.size();
+  }
+
+  @Override
+  public List<CryptoSummaryView> summarize(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var sealed = sealedUntil;
+    var summaries = summarizeBlocks(null, dateFrom, dateTo, sealed);
+    var tailFrom = dateFrom.isAfter(sealed) ? dateFrom : sealed;
+    if (!tailFrom.isAfter(dateTo)) {
+      cryptoDataRepository.calculateCryptosSummary(tailFrom, dateTo)
+        .forEach(tail -> summaries.merge(tail.getSymbol(), tail, CryptoSummary::merge));
+    }
+    return new ArrayList<>(summaries.values());
+  }
+
+  @Override
+  public Optional<CryptoSummaryView> summarize(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var sealed = sealedUntil;
+    var summary = summarizeBlocks(symbol, dateFrom, dateTo, sealed).get(symbol);
+    var tailFrom = dateFrom.isAfter(sealed) ? dateFrom : sealed;
+    if (!tailFrom.isAfter(dateTo)) {
+      summary = CryptoSummary.merge(summary,
+        cryptoDataRepository.calculateCryptoSummary(symbol, tailFrom, dateTo).orElse(null));
+    }
+    return Optional.ofNullable(summary);
+  }
+
+  private Map<String, CryptoSummaryView> summarizeBlocks(String symbol, LocalDateTime dateFrom, LocalDateTime dateTo,
+                                                         LocalDateTime sealed) {
+    var summaries = new LinkedHashMap<String, CryptoSummaryView>();
+    if (!dateFrom.isBefore(sealed)) {
+      return summaries;
+    }
+    var fromMillis = toEpochMilli(dateFrom);
+    var toMillis = toEpochMilli(dateTo);
+    cryptoPriceBlockRepository.findBlocks(symbol, dateFrom, dateTo, sealed.toLocalDate(), (blockSymbol, block) -> {
+      var summary = block.summarize(blockSymbol, fromMillis, toMillis);
+      if (summary != null) {
+        summaries.merge(blockSymbol, summary, CryptoSummary::merge);
+      }
+    });
+    return summaries;
+  }
+
+  private static long toEpochMilli(LocalDateTime dateTime) {
+    return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+}
@@ -0,0 +1,200 @@
+package com.xm.crypto.investment.store;
+
+import com.xm.crypto.investment.repository.CryptoPriceSource;
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import java.util.Arrays;
+
+/**
+ * Immutable, time-ordered price columns of a single crypto.
+ * Timestamps are epoch millis (UTC) and unique, so a timestamp is the natural key of a price.
+ * Prices are fixed-point longs.
+ */
+public final class PriceSeries {
+
+  private final String symbol;
+  private final long[] timestamps;
+  private final long[] prices;
+  private final RangeMinMaxIndex index;
+
+  private PriceSeries(String symbol, long[] timestamps, long[] prices) {
+    this.symbol = symbol;
+    this.timestamps = timestamps;
+    this.prices = prices;
+    this.index = new RangeMinMaxIndex(prices);
+  }
+
+  public static PriceSeries empty(String symbol) {
+    return new PriceSeries(symbol, new long[0], new long[0]);
+  }
+
+  /**
+   * Wraps columns already sorted by unique timestamps, e.g. read from a snapshot. The arrays are not copied.
+   */
+  static PriceSeries of(String symbol, long[] timestamps, long[] prices) {
+    return new PriceSeries(symbol, timestamps, prices);
+  }
+
+  public String getSymbol() {
+    return symbol;
+  }
+
+  public int size() {
+    return timestamps.length;
+  }
+
+  /**
+   * Returns the timestamp column, which must not be modified.
+   */
+  long[] getTimestamps() {
+    return timestamps;
+  }
+
+  /**
+   * Returns the price column, which must not be modified.
+   */
+  long[] getPrices() {
+    return prices;
+  }
+
+  /**
+   * Returns a new series holding the prices of this one merged with the given ones.
+   * On equal timestamps the given price replaces the stored one.
+   */
+  public PriceSeries merge(long[] newTimestamps, long[] newPrices, int length) {
+    sortByTimestamp(newTimestamps, newPrices, length);
+    var mergedTimestamps = new long[timestamps.length + length];
+    var mergedPrices = new long[timestamps.length + length];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < timestamps.length || j < length) {
+      long timestamp;
+      long price;
+      if (j >= length || (i < timestamps.length && timestamps[i] < newTimestamps[j])) {
+        timestamp = timestamps[i];
+        price = prices[i++];
+      } else {
+        if (i < timestamps.length && timestamps[i] == newTimestamps[j]) {
+          i++;
+        }
+        timestamp = newTimestamps[j];
+        price = newPrices[j++];
+      }
+      if (k > 0 && mergedTimestamps[k - 1] == timestamp) {
+        mergedPrices[k - 1] = price;
+      } else {
+        mergedTimestamps[k] = timestamp;
+        mergedPrices[k++] = price;
+      }
+    }
+    return new PriceSeries(symbol, Arrays.copyOf(mergedTimestamps, k), Arrays.copyOf(mergedPrices, k));
+  }
+
+  /**
+   * Returns a series without the prices before the given epoch millis, this one if there is none.
+   */
+  public PriceSeries dropBefore(long fromMillis) {
+    int from = lowerBound(fromMillis);
+    if (from == 0) {
+      return this;
+    }
+    return new PriceSeries(symbol, Arrays.copyOfRange(timestamps, from, timestamps.length),
+      Arrays.copyOfRange(prices, from, prices.length));
+  }
+
+  /**
+   * Calculates oldest/newest/min/max for prices between the given epoch millis (both inclusive).
+   * Oldest and newest come from the window boundaries, min and max from the range index,
+   * so the cost does not depend on the window length.
+   *
+   * @return the summary or {@code null} if there is no price in the window
+   */
+  public CryptoSummary summarize(long fromMillis, long toMillis) {
+    int from = lowerBound(fromMillis);
+    int to = lowerBound(toMillis == Long.MAX_VALUE ? toMillis : toMillis + 1);
+    if (from >= to) {
+      return null;
+    }
+    return new CryptoSummary(symbol, index.min(from, to), index.max(from, to), prices[from], prices[to - 1]);
+  }
+
+  /**
+   * Passes the prices between the given epoch millis (both inclusive) to the consumer in time order.
+   */
+  public void forEach(long fromMillis, long toMillis, CryptoPriceSource.PriceConsumer consumer) {
+    int to = lowerBound(toMillis == Long.MAX_VALUE ? toMillis : toMillis + 1);
+    for (int i = lowerBound(fromMillis); i < to; i++) {
+      consumer.accept(symbol, timestamps[i], prices[i]);
+    }
+  }
+
+  /**
+   * Returns the index of the first timestamp that is not less than the given one.
+   */
+  private int lowerBound(long timestamp) {
+    int low = 0;
+    int high = timestamps.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Stable bottom-up merge sort of both columns by timestamp, starting from the ascending runs the
+   * batches of each file arrive in, so a later price of a timestamp stays after an earlier one.
+   */
+  private static void sortByTimestamp(long[] timestamps, long[] prices, int length) {
+    var runEnds = new int[Math.max(length, 1)];
+    int runs = 0;
+    for (int i = 1; i <= length; i++) {
+      if (i == length || timestamps[i - 1] > timestamps[i]) {
+        runEnds[runs++] = i;
+      }
+    }
+    if (runs <= 1) {
+      return;
+    }
+    var sourceTimestamps = timestamps;
+    var sourcePrices = prices;
+    var targetTimestamps = new long[length];
+    var targetPrices = new long[length];
+    while (runs > 1) {
+      int merged = 0;
+      int from = 0;
+      for (int run = 0; run < runs; run += 2) {
+        int middle = runEnds[run];
+        int to = run + 1 < runs ? runEnds[run + 1] : middle;
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+          if (j >= to || (i < middle && sourceTimestamps[i] <= sourceTimestamps[j])) {
+            targetTimestamps[k] = sourceTimestamps[i];
+            targetPrices[k] = sourcePrices[i++];
+          } else {
+            targetTimestamps[k] = sourceTimestamps[j];
+            targetPrices[k] = sourcePrices[j++];
+          }
+        }
+        runEnds[merged++] = to;
+        from = to;
+      }
+      runs = merged;
+      var swapTimestamps = sourceTimestamps;
+      var swapPrices = sourcePrices;
+      sourceTimestamps = targetTimestamps;
+      sourcePrices = targetPrices;
+      targetTimestamps = swapTimestamps;
+      targetPrices = swapPrices;
+    }
+    if (sourceTimestamps != timestamps) {
+      System.arraycopy(sourceTimestamps, 0, timestamps, 0, length);
+      System.arraycopy(sourcePrices, 0, prices, 0, length);
+    }
+  }
+}
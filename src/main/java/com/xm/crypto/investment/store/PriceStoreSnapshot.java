@@ -0,0 +1,229 @@
+package com.xm.crypto.investment.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import lombok.Value;
+
+/**
+ * Versioned binary image of the {@link InMemoryPriceStore}, restored at startup instead of parsing every price file.
+ * Layout, big-endian:
+ * <pre>
+ * magic, version                         (int, int)
+ * per crypto: timestamps, prices         (count longs each)
+ * directory: created at, files (name, byte offset, fingerprint), cryptos (symbol, count, data offset, checksum)
+ * trailer: directory offset, directory checksum, magic (long, long, int)
+ * </pre>
+ * The files record how far each price file was held when the snapshot was taken, so only later rows are replayed.
+ * Column sections are memory-mapped on read and validated against their CRC-32C checksum.
+ */
+public final class PriceStoreSnapshot {
+
+  private static final int MAGIC = 0x43505353;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+  private static final int TRAILER_BYTES = 2 * Long.BYTES + Integer.BYTES;
+  private static final int WRITE_BUFFER_LONGS = 8192;
+
+  private final Instant createdAt;
+  private final List<PriceSeries> series;
+  private final Map<String, FileOffset> fileOffsets;
+
+  private PriceStoreSnapshot(Instant createdAt, List<PriceSeries> series, Map<String, FileOffset> fileOffsets) {
+    this.createdAt = createdAt;
+    this.series = series;
+    this.fileOffsets = fileOffsets;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public List<PriceSeries> getSeries() {
+    return series;
+  }
+
+  public Map<String, FileOffset> getFileOffsets() {
+    return fileOffsets;
+  }
+
+  /**
+   * Writes the series to a temporary file next to the target and moves it over the target,
+   * so a crash while writing never leaves a truncated snapshot behind.
+   *
+   * @return size of the snapshot in bytes
+   */
+  public static long write(Path path, Collection<PriceSeries> series, Map<String, FileOffset> fileOffsets)
+    throws IOException {
+    var directory = new ByteArrayOutputStream();
+    var directoryOutput = new DataOutputStream(directory);
+    var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    long size;
+    try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeFully(channel, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip());
+
+      directoryOutput.writeLong(System.currentTimeMillis());
+      directoryOutput.writeInt(fileOffsets.size());
+      for (Map.Entry<String, FileOffset> file : fileOffsets.entrySet()) {
+        directoryOutput.writeUTF(file.getKey());
+        directoryOutput.writeLong(file.getValue().getByteOffset());
+        directoryOutput.writeUTF(file.getValue().getFingerprint());
+      }
+      directoryOutput.writeInt(series.size());
+      var buffer = ByteBuffer.allocate(WRITE_BUFFER_LONGS * Long.BYTES);
+      for (PriceSeries priceSeries : series) {
+        long dataOffset = channel.position();
+        var checksum = new CRC32C();
+        writeColumn(channel, priceSeries.getTimestamps(), buffer, checksum);
+        writeColumn(channel, priceSeries.getPrices(), buffer, checksum);
+        directoryOutput.writeUTF(priceSeries.getSymbol());
+        directoryOutput.writeInt(priceSeries.size());
+        directoryOutput.writeLong(dataOffset);
+        directoryOutput.writeLong(checksum.getValue());
+      }
+
+      long directoryOffset = channel.position();
+      var directoryBytes = directory.toByteArray();
+      var directoryChecksum = new CRC32C();
+      directoryChecksum.update(directoryBytes);
+      writeFully(channel, ByteBuffer.wrap(directoryBytes));
+      writeFully(channel, ByteBuffer.allocate(TRAILER_BYTES)
+        .putLong(directoryOffset).putLong(directoryChecksum.getValue()).putInt(MAGIC).flip());
+      channel.force(true);
+      size = channel.position();
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return size;
+  }
+
+  /**
+   * Maps and validates a snapshot.
+   *
+   * @throws IOException when the file cannot be read, is of another version, fails validation or is too large to map
+   */
+  public static PriceStoreSnapshot read(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES + TRAILER_BYTES) {
+        throw new IOException("Snapshot " + path + " is truncated");
+      }
+      var header = readFully(channel, 0, HEADER_BYTES);
+      if (header.getInt() != MAGIC) {
+        throw new IOException(path + " is not a price store snapshot");
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException("Snapshot " + path + " has version " + version + ", expected " + VERSION);
+      }
+      var trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+      long directoryOffset = trailer.getLong();
+      long directoryChecksum = trailer.getLong();
+      if (trailer.getInt() != MAGIC || directoryOffset < HEADER_BYTES || directoryOffset > size - TRAILER_BYTES) {
+        throw new IOException("Snapshot " + path + " is truncated");
+      }
+      long directoryLength = size - TRAILER_BYTES - directoryOffset;
+      if (directoryLength > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot " + path + " has an oversize directory");
+      }
+      var directoryBuffer = readFully(channel, directoryOffset, (int) directoryLength);
+      var checksum = new CRC32C();
+      checksum.update(directoryBuffer.duplicate());
+      if (checksum.getValue() != directoryChecksum) {
+        throw new IOException("Snapshot " + path + " has a corrupt directory");
+      }
+
+      var directory = new DataInputStream(new ByteArrayInputStream(
+        directoryBuffer.array(), directoryBuffer.arrayOffset(), directoryBuffer.remaining()));
+      var createdAt = Instant.ofEpochMilli(directory.readLong());
+      var fileOffsets = new LinkedHashMap<String, FileOffset>();
+      for (int i = directory.readInt(); i > 0; i--) {
+        fileOffsets.put(directory.readUTF(), new FileOffset(directory.readLong(), directory.readUTF()));
+      }
+      int symbols = directory.readInt();
+      if (symbols < 0) {
+        throw new IOException("Snapshot " + path + " has a corrupt directory");
+      }
+      var series = new ArrayList<PriceSeries>(symbols);
+      for (int i = 0; i < symbols; i++) {
+        var symbol = directory.readUTF();
+        int count = directory.readInt();
+        long dataOffset = directory.readLong();
+        long dataChecksum = directory.readLong();
+        long length = 2L * count * Long.BYTES;
+        // a mapping holds at most Integer.MAX_VALUE bytes
+        if (count < 0 || length > Integer.MAX_VALUE || dataOffset < HEADER_BYTES
+          || dataOffset + length > directoryOffset) {
+          throw new IOException("Snapshot " + path + " has a corrupt entry for " + symbol);
+        }
+        var data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, length);
+        checksum.reset();
+        checksum.update(data.duplicate());
+        if (checksum.getValue() != dataChecksum) {
+          throw new IOException("Snapshot " + path + " has corrupt prices of " + symbol);
+        }
+        var timestamps = new long[count];
+        var prices = new long[count];
+        var columns = data.asLongBuffer();
+        columns.get(timestamps).get(prices);
+        series.add(PriceSeries.of(symbol, timestamps, prices));
+      }
+      return new PriceStoreSnapshot(createdAt, series, fileOffsets);
+    }
+  }
+
+  private static void writeColumn(FileChannel channel, long[] column, ByteBuffer buffer, CRC32C checksum)
+    throws IOException {
+    for (int from = 0; from < column.length; from += WRITE_BUFFER_LONGS) {
+      int length = Math.min(WRITE_BUFFER_LONGS, column.length - from);
+      buffer.clear();
+      buffer.asLongBuffer().put(column, from, length);
+      buffer.limit(length * Long.BYTES);
+      checksum.update(buffer.duplicate());
+      writeFully(channel, buffer);
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+    var buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of snapshot");
+      }
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Every price of a file before {@code byteOffset} is held, the fingerprint identifies that prefix.
+   */
+  @Value
+  public static class FileOffset {
+    long byteOffset;
+    String fingerprint;
+  }
+}
@@ -0,0 +1,57 @@
+package com.xm.crypto.investment.store;
+
+/**
+ * Bottom-up segment tree answering min and max of any index range in O(log n).
+ * It needs 2n slots per aggregate, unlike a sparse table that needs n log n,
+ * which matters for years of minute ticks held in memory.
+ */
+final class RangeMinMaxIndex {
+
+  private final int size;
+  private final long[] min;
+  private final long[] max;
+
+  RangeMinMaxIndex(long[] values) {
+    size = values.length;
+    min = new long[2 * size];
+    max = new long[2 * size];
+    System.arraycopy(values, 0, min, size, size);
+    System.arraycopy(values, 0, max, size, size);
+    for (int i = size - 1; i > 0; i--) {
+      min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+      max[i] = Math.max(max[2 * i], max[2 * i + 1]);
+    }
+  }
+
+  /**
+   * Returns the minimum of the values in {@code [from, to)}, the range must not be empty.
+   */
+  long min(int from, int to) {
+    long result = Long.MAX_VALUE;
+    for (from += size, to += size; from < to; from >>= 1, to >>= 1) {
+      if ((from & 1) == 1) {
+        result = Math.min(result, min[from++]);
+      }
+      if ((to & 1) == 1) {
+        result = Math.min(result, min[--to]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the maximum of the values in {@code [from, to)}, the range must not be empty.
+   */
+  long max(int from, int to) {
+    long result = Long.MIN_VALUE;
+    for (from += size, to += size; from < to; from >>= 1, to >>= 1) {
+      if ((from & 1) == 1) {
+        result = Math.max(result, max[from++]);
+      }
+      if ((to & 1) == 1) {
+        result = Math.max(result, max[--to]);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,38 @@
+-- Tables as created by Hibernate before migrations took over the schema, existing databases keep theirs.
+
+CREATE TABLE IF NOT EXISTS crypto_data (
+  id bigserial NOT NULL,
+  date_time timestamp,
+  price numeric(19, 2),
+  symbol varchar(255),
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS crypto_daily_summary (
+  symbol varchar(255) NOT NULL,
+  day date NOT NULL,
+  open_price numeric(19, 2),
+  high_price numeric(19, 2),
+  low_price numeric(19, 2),
+  close_price numeric(19, 2),
+  open_time timestamp,
+  close_time timestamp,
+  tick_count int8 NOT NULL,
+  PRIMARY KEY (symbol, day)
+);
+
+CREATE TABLE IF NOT EXISTS crypto_daily_leaderboard (
+  day date NOT NULL,
+  rank int4 NOT NULL,
+  symbol varchar(255),
+  normalized_price numeric,
+  PRIMARY KEY (day, rank)
+);
+
+CREATE TABLE IF NOT EXISTS crypto_ingest_checkpoint (
+  file_name varchar(255) NOT NULL,
+  byte_offset int8 NOT NULL,
+  fingerprint varchar(255),
+  updated_at timestamp,
+  PRIMARY KEY (file_name)
+);
@@ -0,0 +1,41 @@
+-- Turns crypto_data into a table range-partitioned by month of date_time, named crypto_data_YYYY_MM.
+-- Window queries only scan the months they cover, and old months can be detached as plain tables.
+-- Partitions of new months are created by the application before it stores prices in them.
+
+CREATE TABLE crypto_data_partitioned (
+  id bigint NOT NULL DEFAULT nextval('crypto_data_id_seq'),
+  date_time timestamp NOT NULL,
+  price numeric(19, 2),
+  symbol varchar(255)
+) PARTITION BY RANGE (date_time);
+
+DO $$
+DECLARE
+  month date;
+BEGIN
+  FOR month IN
+    SELECT generate_series(date_trunc('month', MIN(date_time)), date_trunc('month', MAX(date_time)), interval '1 month')::date
+    FROM crypto_data
+  LOOP
+    EXECUTE format('CREATE TABLE %I PARTITION OF crypto_data_partitioned FOR VALUES FROM (%L) TO (%L)',
+      'crypto_data_' || to_char(month, 'YYYY_MM'), month, (month + interval '1 month')::date);
+  END LOOP;
+END $$;
+
+-- tables filled before the (symbol, date_time) key existed may hold duplicates, the latest row of each is kept
+INSERT INTO crypto_data_partitioned (id, date_time, price, symbol)
+SELECT DISTINCT ON (symbol, date_time) id, date_time, price, symbol
+FROM crypto_data
+WHERE date_time IS NOT NULL
+ORDER BY symbol, date_time, id DESC;
+
+ALTER SEQUENCE crypto_data_id_seq OWNED BY NONE;
+DROP TABLE crypto_data;
+ALTER TABLE crypto_data_partitioned RENAME TO crypto_data;
+ALTER SEQUENCE crypto_data_id_seq OWNED BY crypto_data.id;
+
+-- keys of a partitioned table must include date_time; the natural key doubles as the (symbol, date_time) index
+ALTER TABLE crypto_data ADD CONSTRAINT crypto_data_pkey PRIMARY KEY (id, date_time);
+ALTER TABLE crypto_data ADD CONSTRAINT crypto_data_symbol_date_time_key UNIQUE (symbol, date_time);
+-- prices are appended in time order, so block ranges summarize date_time well at a fraction of a btree's size
+CREATE INDEX crypto_data_date_time_brin ON crypto_data USING brin (date_time);
@@ -0,0 +1,19 @@
+-- Closed days of crypto_data sealed into compressed blocks, read when crypto.read-backend is "blocks".
+-- Header columns mirror the block header, prices are fixed-point with 8 decimals like in the application,
+-- so windows covering whole days are summarized without reading data.
+CREATE TABLE IF NOT EXISTS crypto_price_block (
+  symbol varchar(255) NOT NULL,
+  day date NOT NULL,
+  tick_count int4 NOT NULL,
+  first_time timestamp NOT NULL,
+  last_time timestamp NOT NULL,
+  min_price int8 NOT NULL,
+  max_price int8 NOT NULL,
+  first_price int8 NOT NULL,
+  last_price int8 NOT NULL,
+  data bytea NOT NULL,
+  PRIMARY KEY (symbol, day)
+);
+
+-- blocks are already compressed, TOAST stores them out of line without trying pglz on top
+ALTER TABLE crypto_price_block ALTER COLUMN data SET STORAGE EXTERNAL;
@@ -0,0 +1,16 @@
+-- Prices were stored with the 2 decimals of the Hibernate baseline, rounding e.g. 0.1702 to 0.17, while the
+-- application parses them with the 8 decimals of FixedPointPrice. Widen every price column to that scale.
+-- V1 and V2 are left as applied, so their checksums still match on existing databases.
+
+-- on the partitioned table the change cascades to every attached month
+ALTER TABLE crypto_data ALTER COLUMN price TYPE numeric(27, 8);
+
+ALTER TABLE crypto_daily_summary
+  ALTER COLUMN open_price TYPE numeric(27, 8),
+  ALTER COLUMN high_price TYPE numeric(27, 8),
+  ALTER COLUMN low_price TYPE numeric(27, 8),
+  ALTER COLUMN close_price TYPE numeric(27, 8);
+
+-- rows stored so far were rounded: forgetting the checkpoints reloads every price file at the next start, the
+-- upsert corrects the rounded prices and the rollup and blocks of the days they change are rebuilt
+DELETE FROM crypto_ingest_checkpoint;
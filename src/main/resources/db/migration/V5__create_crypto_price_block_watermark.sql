@@ -0,0 +1,7 @@
+-- Day up to which every closed day of every crypto was sealed by the last complete sealing pass, so replicas
+-- which store no prices at startup read blocks without sealing again.
+CREATE TABLE IF NOT EXISTS crypto_price_block_watermark (
+  id int4 NOT NULL DEFAULT 1 CHECK (id = 1),
+  sealed_until date NOT NULL,
+  PRIMARY KEY (id)
+);
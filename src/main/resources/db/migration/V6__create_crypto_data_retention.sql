@@ -0,0 +1,8 @@
+-- Month before which the partitions of crypto_data were detached, with the rows derived from them. It is part of
+-- the ingest version, so responses computed while those months were served are revalidated on every replica.
+CREATE TABLE IF NOT EXISTS crypto_data_retention (
+  id int4 NOT NULL DEFAULT 1 CHECK (id = 1),
+  detached_before date NOT NULL,
+  updated_at timestamp NOT NULL,
+  PRIMARY KEY (id)
+);
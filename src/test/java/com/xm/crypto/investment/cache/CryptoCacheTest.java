@@ -0,0 +1,240 @@
+package com.xm.crypto.investment.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+class CryptoCacheTest {
+
+  private static final String KEY = "BTC_all_interval";
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  private RedisTemplate<String, Object> redisTemplate;
+  private ValueOperations<String, Object> valueOperations;
+  private RedisConnection connection;
+  private SimpleMeterRegistry meterRegistry;
+  private CryptoCache cryptoCache;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redisTemplate = mock(RedisTemplate.class);
+    valueOperations = mock(ValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    connection = mock(RedisConnection.class);
+    when(connection.scan(any(ScanOptions.class))).thenReturn(mock(Cursor.class));
+    when(connection.get(any(byte[].class))).thenReturn("7".getBytes(StandardCharsets.UTF_8));
+    when(redisTemplate.execute(any(RedisCallback.class)))
+      .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+    doReturn(RedisSerializer.java()).when(redisTemplate).getValueSerializer();
+    when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class), anyList(),
+      any())).thenReturn(1L);
+    meterRegistry = new SimpleMeterRegistry();
+    cryptoCache = new CryptoCache(redisTemplate, meterRegistry, 100, Duration.ofMinutes(1), "channel",
+      Duration.ofSeconds(1), Duration.ofMillis(10));
+  }
+
+  @Test
+  void testKeyFamily() {
+    assertEquals("normalized", CryptoCache.keyFamily("normalized_2022-01-01_2022-01-02"));
+    assertEquals("normalized", CryptoCache.keyFamily("normalized_all_interval"));
+    assertEquals("statistics", CryptoCache.keyFamily("statistics_all_interval"));
+    assertEquals("statistic", CryptoCache.keyFamily("statistic_BTC_2022-01-01_2022-01-02"));
+    assertEquals("statistic", CryptoCache.keyFamily("BTC_all_interval"));
+  }
+
+  @Test
+  void testLockKey_matchesNoInvalidatedPattern() {
+    var keys = List.of("normalized_2022-01-01_2022-01-02", "normalized_all_interval", "statistics_all_interval",
+      "statistic_BTC_2022-01-01_2022-01-02", "BTC_all_interval");
+    for (String key : keys) {
+      assertTrue(CryptoCache.KEY_PATTERNS.stream().anyMatch(pattern -> glob(pattern).matcher(key).matches()), key);
+      var lockKey = CryptoCache.lockKey(key);
+      assertFalse(CryptoCache.KEY_PATTERNS.stream().anyMatch(pattern -> glob(pattern).matcher(lockKey).matches()),
+        lockKey);
+    }
+  }
+
+  @Test
+  void testGetOrLoad_concurrentMisses_loadedOnce() throws Exception {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(true);
+    var loads = new AtomicInteger();
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var first = CompletableFuture.supplyAsync(() -> cryptoCache.getOrLoad(KEY, TTL, () -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(release);
+      return "value";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    var waiting = new ArrayList<CompletableFuture<String>>();
+    for (int i = 0; i < 4; i++) {
+      waiting.add(CompletableFuture.supplyAsync(() -> cryptoCache.getOrLoad(KEY, TTL, () -> {
+        loads.incrementAndGet();
+        return "other";
+      })));
+    }
+    // the waiting callers miss the near cache and find the load in flight
+    while (meterRegistry.counter("crypto.cache.requests", "family", "statistic", "result", "coalesced").count() < 4) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+
+    assertEquals("value", first.get(5, TimeUnit.SECONDS));
+    for (CompletableFuture<String> caller : waiting) {
+      assertEquals("value", caller.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, loads.get());
+    verifyWritten(1);
+    verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(CryptoCache.lockKey(KEY))), anyString());
+    assertEquals("value", cryptoCache.getOrLoad(KEY, TTL, () -> "other"));
+  }
+
+  @Test
+  void testGetOrLoad_loaderFails_lockReleasedAndErrorRethrownToWaiters() throws Exception {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(true);
+    var failure = new IllegalStateException("database is down");
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var first = CompletableFuture.supplyAsync(() -> cryptoCache.<String>getOrLoad(KEY, TTL, () -> {
+      loading.countDown();
+      await(release);
+      throw failure;
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    var waiting = CompletableFuture.supplyAsync(() -> cryptoCache.getOrLoad(KEY, TTL, () -> "other"));
+    while (meterRegistry.counter("crypto.cache.requests", "family", "statistic", "result", "coalesced").count() < 1) {
+      Thread.sleep(10);
+    }
+    release.countDown();
+
+    assertSame(failure, assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+    assertSame(failure, assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS)).getCause());
+    verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(CryptoCache.lockKey(KEY))), anyString());
+    verifyWritten(0);
+
+    // the failed load is not kept, the next caller loads again
+    assertEquals("value", cryptoCache.getOrLoad(KEY, TTL, () -> "value"));
+    verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of(CryptoCache.lockKey(KEY))), anyString());
+  }
+
+  @Test
+  void testGetOrLoad_lockedByAnotherReplica_waitsForItsValue() {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(false);
+    when(valueOperations.get(KEY)).thenReturn(null, null, "remote");
+    when(redisTemplate.hasKey(CryptoCache.lockKey(KEY))).thenReturn(true);
+
+    assertEquals("remote", cryptoCache.getOrLoad(KEY, TTL, () -> "local"));
+    verifyWritten(0);
+    verify(redisTemplate, never()).execute(any(RedisScript.class), any(), any());
+  }
+
+  @Test
+  void testGetOrLoad_invalidatedWhileLoading_valueNotCached() throws Exception {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(true);
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var load = CompletableFuture.supplyAsync(() -> cryptoCache.getOrLoad(KEY, TTL, () -> {
+      loading.countDown();
+      await(release);
+      return "stale";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    cryptoCache.invalidateAll();
+    release.countDown();
+
+    // the callers of the load still get its value, but it is neither written to Redis nor kept
+    assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+    verify(connection).incr(CryptoCache.EPOCH_KEY.getBytes(StandardCharsets.UTF_8));
+    verifyWritten(0);
+    assertEquals("fresh", cryptoCache.getOrLoad(KEY, TTL, () -> "fresh"));
+    verifyWritten(1);
+  }
+
+  @Test
+  void testGetOrLoad_invalidationMessageWhileLoading_valueNotCached() throws Exception {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(true);
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var load = CompletableFuture.supplyAsync(() -> cryptoCache.getOrLoad(KEY, TTL, () -> {
+      loading.countDown();
+      await(release);
+      return "stale";
+    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    cryptoCache.onMessage(null, null);
+    release.countDown();
+
+    assertEquals("stale", load.get(5, TimeUnit.SECONDS));
+    verifyWritten(0);
+  }
+
+  @Test
+  void testGetOrLoad_epochChangedInRedis_valueNotKept() {
+    when(valueOperations.setIfAbsent(eq(CryptoCache.lockKey(KEY)), anyString(), any(Duration.class))).thenReturn(true);
+    // another replica invalidated the cache, the conditional write is refused
+    when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class), anyList(),
+      any())).thenReturn(0L);
+
+    assertEquals("stale", cryptoCache.getOrLoad(KEY, TTL, () -> "stale"));
+    assertEquals("fresh", cryptoCache.getOrLoad(KEY, TTL, () -> "fresh"));
+    verify(redisTemplate, times(2)).execute(any(RedisScript.class), any(RedisSerializer.class),
+      any(RedisSerializer.class), eq(List.of(KEY, CryptoCache.EPOCH_KEY)),
+      argThat(epoch -> Arrays.equals((byte[]) epoch, "7".getBytes(StandardCharsets.UTF_8))), any(), any());
+  }
+
+  private void verifyWritten(int times) {
+    verify(redisTemplate, times(times)).execute(any(RedisScript.class), any(RedisSerializer.class),
+      any(RedisSerializer.class), eq(List.of(KEY, CryptoCache.EPOCH_KEY)), any());
+  }
+
+  private static Pattern glob(String pattern) {
+    return Pattern.compile(Pattern.quote(pattern).replace("*", "\\E.*\\Q"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
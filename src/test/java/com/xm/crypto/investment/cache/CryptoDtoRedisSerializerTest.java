@@ -0,0 +1,53 @@
+package com.xm.crypto.investment.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
+import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+class CryptoDtoRedisSerializerTest {
+
+  private final CryptoDtoRedisSerializer serializer = new CryptoDtoRedisSerializer();
+
+  @Test
+  void testRoundTrip_normalizedList() {
+    var value = new CryptoNormalizedListDto().cryptos(List.of(
+      new CryptoNormalizedDto().symbol("DOGE").normalizedPrice(BigDecimal.valueOf(0.46)),
+      new CryptoNormalizedDto().symbol("BTC").normalizedPrice(new BigDecimal("-12345678901234567890.5E+3"))));
+
+    var bytes = serializer.serialize(value);
+
+    assertEquals(value, serializer.deserialize(bytes));
+    assertTrue(bytes.length < new JdkSerializationRedisSerializer().serialize(value).length / 10);
+  }
+
+  @Test
+  void testRoundTrip_statisticWithNulls() {
+    var value = new CryptoStatisticDto().symbol("BTC").oldest(BigDecimal.valueOf(46813.21)).max(BigDecimal.ZERO);
+
+    assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+  }
+
+  @Test
+  void testRoundTrip_statisticList() {
+    var value = new CryptoStatisticListDto().cryptos(List.of(
+      new CryptoStatisticDto().symbol("BTC").min(BigDecimal.valueOf(46813.21)),
+      new CryptoStatisticDto().symbol("ETH").newest(BigDecimal.valueOf(3715.32))));
+
+    assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+  }
+
+  @Test
+  void testRoundTrip_otherTypesAndNull() {
+    assertEquals("plain", serializer.deserialize(serializer.serialize("plain")));
+    assertNull(serializer.deserialize(serializer.serialize(null)));
+  }
+}
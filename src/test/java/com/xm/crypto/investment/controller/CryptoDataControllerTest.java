@@ -1,16 +1,30 @@
 package com.xm.crypto.investment.controller;
 
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.xm.crypto.investment.domain.dto.CryptoDailyLeaderboardDto;
+import com.xm.crypto.investment.domain.dto.CryptoDailyLeaderboardListDto;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedDto;
 import com.xm.crypto.investment.domain.dto.CryptoNormalizedListDto;
 import com.xm.crypto.investment.domain.dto.CryptoStatisticDto;
+import com.xm.crypto.investment.domain.dto.CryptoStatisticListDto;
+import com.xm.crypto.investment.domain.dto.CryptoSymbolListDto;
+import com.xm.crypto.investment.exception.CryptoNotSupportedException;
+import com.xm.crypto.investment.exception.InvalidRangeException;
 import com.xm.crypto.investment.service.CryptoDataService;
+import com.xm.crypto.investment.service.CryptoLeaderboardService;
+import com.xm.crypto.investment.service.IngestVersion;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +38,10 @@ class CryptoDataControllerTest {
   private MockMvc mockMvc;
   @MockBean
   private CryptoDataService cryptoDataService;
+  @MockBean
+  private CryptoLeaderboardService cryptoLeaderboardService;
+  @MockBean
+  private IngestVersion ingestVersion;
 
   @Test
   void testGetNormalizedRange() throws Exception {
@@ -84,4 +102,104 @@ class CryptoDataControllerTest {
       .andExpect(jsonPath("$.newest").value(20000.52));
   }
 
-}
\ No newline at end of file
+  @Test
+  void testGetStatistics() throws Exception {
+    var cryptoStatisticListDto = new CryptoStatisticListDto().cryptos(List.of(
+      new CryptoStatisticDto().symbol("BTC").min(BigDecimal.valueOf(11000.52)),
+      new CryptoStatisticDto().symbol("ETH").min(BigDecimal.valueOf(3715.32))));
+
+    when(cryptoDataService.getStatistics(
+      List.of("BTC", "ETH"),
+      LocalDate.of(2022, 1, 1),
+      LocalDate.of(2022, 1, 2)))
+      .thenReturn(cryptoStatisticListDto);
+
+    mockMvc.perform(get("/api/v1/cryptos/statistics?symbols=BTC,ETH&dateFrom=2022-01-01&dateTo=2022-01-02"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.cryptos[0].symbol").value("BTC"))
+      .andExpect(jsonPath("$.cryptos[0].min").value(11000.52))
+      .andExpect(jsonPath("$.cryptos[1].symbol").value("ETH"))
+      .andExpect(jsonPath("$.cryptos[1].min").value(3715.32));
+  }
+
+  @Test
+  void testGetStatistics_blankSymbol_badRequest() throws Exception {
+    when(cryptoDataService.getStatistics(Arrays.asList("BTC", "", "ETH"), null, null))
+      .thenThrow(new InvalidRangeException("symbols must not contain blank entries"));
+
+    mockMvc.perform(get("/api/v1/cryptos/statistics?symbols=BTC,,ETH"))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void testGetSymbols() throws Exception {
+    when(cryptoDataService.getSymbols()).thenReturn(new CryptoSymbolListDto().symbols(List.of("BTC", "ETH")));
+
+    mockMvc.perform(get("/api/v1/cryptos/symbols"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.symbols[0]").value("BTC"))
+      .andExpect(jsonPath("$.symbols[1]").value("ETH"));
+  }
+
+  @Test
+  void testGetNormalizedRangeHighestByDay() throws Exception {
+    var leaderboard = new CryptoDailyLeaderboardListDto().days(List.of(
+      new CryptoDailyLeaderboardDto().day(LocalDate.of(2022, 1, 1)).cryptos(List.of(
+        new CryptoNormalizedDto().symbol("BTC").normalizedPrice(BigDecimal.valueOf(0.02)))),
+      new CryptoDailyLeaderboardDto().day(LocalDate.of(2022, 1, 2)).cryptos(List.of(
+        new CryptoNormalizedDto().symbol("DOGE").normalizedPrice(BigDecimal.valueOf(0.05))))));
+
+    when(cryptoLeaderboardService.getDailyLeaderboard(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3), 1))
+      .thenReturn(leaderboard);
+
+    mockMvc.perform(get("/api/v1/cryptos/range/highest?dateFrom=2022-01-01&dateTo=2022-01-03"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.days[0].day").value("2022-01-01"))
+      .andExpect(jsonPath("$.days[0].cryptos[0].symbol").value("BTC"))
+      .andExpect(jsonPath("$.days[1].day").value("2022-01-02"))
+      .andExpect(jsonPath("$.days[1].cryptos[0].normalizedPrice").value(0.05));
+  }
+
+  @Test
+  void testGetStatisticsByCrypto_notModified() throws Exception {
+    when(ingestVersion.getCurrent()).thenReturn(
+      new IngestVersion.Version("5d41402abc4b2a76b9719d911017c592", Instant.ofEpochMilli(1641009600000L)));
+    when(cryptoDataService.getStatisticsByCrypto("BTC", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2)))
+      .thenReturn(new CryptoStatisticDto().symbol("BTC"));
+    var path = "/api/v1/cryptos/statistics/BTC?dateFrom=2022-01-01&dateTo=2022-01-02";
+
+    var etag = mockMvc.perform(get(path))
+      .andExpect(status().isOk())
+      .andExpect(header().string("Cache-Control", "no-cache, public"))
+      .andExpect(header().exists("Last-Modified"))
+      .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get(path).header("If-None-Match", etag))
+      .andExpect(status().isNotModified())
+      .andExpect(header().string("ETag", etag));
+    mockMvc.perform(get("/api/v1/cryptos/statistics/BTC?dateFrom=2022-01-01&dateTo=2022-01-03")
+        .header("If-None-Match", etag))
+      .andExpect(status().isOk());
+
+    verify(cryptoDataService, times(1)).getStatisticsByCrypto("BTC", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2));
+
+    // If-Modified-Since is only answered once the controller served the resource
+    mockMvc.perform(get(path).header("If-Modified-Since", "Sat, 01 Jan 2022 04:00:00 GMT"))
+      .andExpect(status().isNotModified())
+      .andExpect(content().string(""));
+    verify(cryptoDataService, times(2)).getStatisticsByCrypto("BTC", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 2));
+  }
+
+  @Test
+  void testGetStatisticsByCrypto_preconditionsOfUnknownCrypto() throws Exception {
+    when(ingestVersion.getCurrent()).thenReturn(
+      new IngestVersion.Version("5d41402abc4b2a76b9719d911017c592", Instant.ofEpochMilli(1641009600000L)));
+    when(cryptoDataService.getStatisticsByCrypto("JUNK", null, null)).thenThrow(new CryptoNotSupportedException("JUNK"));
+
+    mockMvc.perform(get("/api/v1/cryptos/statistics/JUNK").header("If-None-Match", "*"))
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist("ETag"));
+    mockMvc.perform(get("/api/v1/cryptos/statistics/JUNK").header("If-Modified-Since", "Sat, 01 Jan 2022 04:00:00 GMT"))
+      .andExpect(status().isNotFound());
+  }
+}
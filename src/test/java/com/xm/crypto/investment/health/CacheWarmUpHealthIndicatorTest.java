@@ -0,0 +1,37 @@
+package com.xm.crypto.investment.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.xm.crypto.investment.service.CacheWarmer;
+import com.xm.crypto.investment.service.PricesIngestFailedEvent;
+import com.xm.crypto.investment.service.PricesIngestedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+class CacheWarmUpHealthIndicatorTest {
+
+  @Test
+  void testHealth_upOnceInitialLoadIsDone() {
+    var cacheWarmer = new CacheWarmer(null, null);
+    var indicator = new CacheWarmUpHealthIndicator(cacheWarmer);
+
+    assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    assertEquals("warming up", indicator.health().getDetails().get("cache"));
+
+    cacheWarmer.onInitialLoad(new PricesIngestedEvent(this, true, true));
+
+    assertEquals(Status.UP, indicator.health().getStatus());
+  }
+
+  @Test
+  void testHealth_skippedWhenInitialLoadFails() {
+    var cacheWarmer = new CacheWarmer(null, null);
+    var indicator = new CacheWarmUpHealthIndicator(cacheWarmer);
+
+    cacheWarmer.onIngestFailed(new PricesIngestFailedEvent(this, new IllegalStateException("broken")));
+
+    var health = indicator.health();
+    assertEquals(Status.UP, health.getStatus());
+    assertEquals("skipped, the startup load failed", health.getDetails().get("cache"));
+  }
+}
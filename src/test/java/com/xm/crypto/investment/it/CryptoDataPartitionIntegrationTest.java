@@ -0,0 +1,50 @@
+package com.xm.crypto.investment.it;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.xm.crypto.investment.repository.CryptoDataPartitionRepository;
+import com.xm.crypto.investment.service.CsvFileParserService;
+import java.nio.file.Files;
+import java.time.YearMonth;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class CryptoDataPartitionIntegrationTest extends AbstractIntegrationTest {
+  private static final YearMonth DETACHED_MONTH = YearMonth.of(2020, 3);
+
+  @Autowired
+  private CryptoDataPartitionRepository cryptoDataPartitionRepository;
+  @Autowired
+  private CsvFileParserService csvFileParserService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @After
+  public void dropDetachedPartition() {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS crypto_data_2020_03_archived");
+    jdbcTemplate.update("DELETE FROM crypto_ingest_checkpoint WHERE file_name = 'LATE_values.csv'");
+    jdbcTemplate.update("DELETE FROM crypto_data_retention");
+  }
+
+  @Test
+  public void testIngest_latePricesOfMonthDetachedByAnotherReplica_rejected() throws Exception {
+    cryptoDataPartitionRepository.ensurePartitions(DETACHED_MONTH, DETACHED_MONTH);
+    // another replica detaches the month this one still knows
+    new CryptoDataPartitionRepository(jdbcTemplate).detachPartitionsBefore(DETACHED_MONTH.plusMonths(1));
+
+    var directory = Files.createTempDirectory("prices");
+    var file = Files.writeString(directory.resolve("LATE_values.csv"),
+      "timestamp,symbol,price\n1583798400000,BTC,9000.5\n");
+
+    assertFalse(csvFileParserService.ingestAppendedLines(file));
+    assertEquals(0, jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM crypto_data WHERE date_time < '2020-04-01'", Integer.class));
+    assertEquals(0, jdbcTemplate.queryForObject(
+      "SELECT COUNT(*) FROM pg_class WHERE relname = 'crypto_data_2020_03'", Integer.class));
+    assertEquals(DETACHED_MONTH.plusMonths(1).atDay(1),
+      cryptoDataPartitionRepository.findRetention().orElseThrow().getDetachedBefore());
+  }
+}
@@ -0,0 +1,245 @@
+package com.xm.crypto.investment.it;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.cache.CryptoCache;
+import com.xm.crypto.investment.support.LoadTestReport;
+import com.xm.crypto.investment.support.LocalCryptoCache;
+import com.xm.crypto.investment.support.PriceFileGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Opt-in load and latency regression suite, run with {@code -Dloadtest=true}.
+ * Seeds synthetic price files, ingests them through the regular startup load and drives the range,
+ * highest range and statistics endpoints over HTTP with cold, warm and mixed cache traffic.
+ * Cold requests ask for keys that were never cached, warm requests for a small hot set.
+ * Throughput and latency percentiles are written to {@code loadtest.report}; when {@code loadtest.baseline}
+ * points to an earlier report the test fails on regressions beyond {@code loadtest.max-regression}.
+ * Redis is replaced by {@link LocalCryptoCache} unless {@code loadtest.redis=container}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+  "bucket4j.enabled=false",
+  "spring.main.allow-bean-definition-overriding=true"
+})
+class CryptoLoadTest {
+
+  private static final int SYMBOLS = Integer.getInteger("loadtest.symbols", 200);
+  private static final int ROWS_PER_SYMBOL = Integer.getInteger("loadtest.rows-per-symbol", 10_000);
+  private static final int INTERVAL_MINUTES = Integer.getInteger("loadtest.interval-minutes", 60);
+  private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2_000);
+  private static final int WARMUP_REQUESTS = Integer.getInteger("loadtest.warmup-requests", 200);
+  private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+  private static final double MIXED_COLD_RATIO = Double.parseDouble(System.getProperty("loadtest.mixed-cold-ratio", "0.2"));
+  private static final double MAX_REGRESSION = Double.parseDouble(System.getProperty("loadtest.max-regression", "0.25"));
+  private static final int HOT_KEYS = 8;
+  private static final LocalDate FIRST_DAY =
+    Instant.ofEpochMilli(PriceFileGenerator.FIRST_TIMESTAMP).atZone(ZoneOffset.UTC).toLocalDate();
+  private static final int DAYS = (int) Math.max(1, (long) ROWS_PER_SYMBOL * INTERVAL_MINUTES / (24 * 60));
+
+  static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:14-alpine");
+  static GenericContainer<?> redis = new GenericContainer<>("redis:6-alpine").withExposedPorts(6379);
+  static Path priceDirectory;
+  static List<Path> priceFiles;
+
+  @LocalServerPort
+  private int port;
+  @Autowired
+  private CryptoCache cryptoCache;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @DynamicPropertySource
+  static void properties(DynamicPropertyRegistry registry) throws IOException {
+    priceDirectory = Files.createTempDirectory("load-test-prices");
+    priceFiles = new PriceFileGenerator(SYMBOLS, ROWS_PER_SYMBOL, INTERVAL_MINUTES * 60_000L, 42).writeFiles(priceDirectory);
+    registry.add("crypto.location-pattern", () -> priceDirectory.toUri() + "*_values.csv");
+
+    postgreSQLContainer.start();
+    registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+    registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+    if ("container".equals(System.getProperty("loadtest.redis"))) {
+      redis.start();
+      registry.add("spring.redis.host", redis::getHost);
+      registry.add("spring.redis.port", redis::getFirstMappedPort);
+    }
+  }
+
+  @AfterAll
+  static void tearDown() throws IOException {
+    postgreSQLContainer.stop();
+    redis.stop();
+    for (Path file : priceFiles) {
+      Files.delete(file);
+    }
+    Files.delete(priceDirectory);
+  }
+
+  @Test
+  void testLatencyAndThroughput() throws Exception {
+    var report = new LoadTestReport(SYMBOLS, (long) SYMBOLS * ROWS_PER_SYMBOL, CONCURRENCY);
+    var endpoints = List.of(
+      new Endpoint("range", Long.MAX_VALUE,
+        key -> String.format("/api/v1/cryptos/range?dateFrom=%s&dateTo=%s", from(key), to(key))),
+      new Endpoint("range-highest", DAYS,
+        key -> "/api/v1/cryptos/range/highest/" + FIRST_DAY.plusDays(key % DAYS)),
+      new Endpoint("statistics", Long.MAX_VALUE,
+        key -> String.format("/api/v1/cryptos/statistics/%s?dateFrom=%s&dateTo=%s",
+          PriceFileGenerator.symbol(key % SYMBOLS), from(key), to(key))));
+    for (Endpoint endpoint : endpoints) {
+      report.getScenarios().add(run(endpoint, "cold", 1));
+      report.getScenarios().add(run(endpoint, "warm", 0));
+      report.getScenarios().add(run(endpoint, "mixed", MIXED_COLD_RATIO));
+    }
+
+    var reportFile = Path.of(System.getProperty("loadtest.report", "target/load-test-report.json"));
+    report.write(reportFile);
+    for (LoadTestReport.Scenario scenario : report.getScenarios()) {
+      assertEquals(0, scenario.getErrors(), scenario.getName() + " failed requests");
+    }
+    var baseline = System.getProperty("loadtest.baseline");
+    if (baseline != null) {
+      var regressions = report.regressionsAgainst(LoadTestReport.read(Path.of(baseline)), MAX_REGRESSION);
+      assertTrue(regressions.isEmpty(), "Regressions against " + baseline + ": " + regressions);
+    }
+  }
+
+  /**
+   * Runs the warm-up and then the measured requests of a scenario, with a share of coldRatio of
+   * them asking for keys not requested before. The cache is emptied first, so the warm-up primes the hot keys.
+   * Cold requests of an endpoint with few distinct keys are capped so they never repeat a key.
+   */
+  private LoadTestReport.Scenario run(Endpoint endpoint, String mix, double coldRatio) throws Exception {
+    cryptoCache.invalidateAll();
+    long coldKeys = endpoint.distinctKeys - HOT_KEYS;
+    int requests = (int) Math.min(REQUESTS,
+      coldRatio > 0 ? (long) (Math.max(0, coldKeys - WARMUP_REQUESTS) / coldRatio) : REQUESTS);
+    var nextColdKey = new AtomicInteger(HOT_KEYS);
+    IntFunction<String> pathOf = request -> endpoint.path.apply(
+      ThreadLocalRandom.current().nextDouble() < coldRatio ? nextColdKey.getAndIncrement() : request % HOT_KEYS);
+
+    for (int i = 0; i < Math.max(WARMUP_REQUESTS, HOT_KEYS); i++) {
+      send(pathOf.apply(i));
+    }
+    var latencies = new long[requests];
+    var next = new AtomicInteger();
+    var errors = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(CONCURRENCY);
+    long start = System.nanoTime();
+    try {
+      var workers = new ArrayList<Future<?>>();
+      for (int i = 0; i < CONCURRENCY; i++) {
+        workers.add(executor.submit(() -> {
+          for (int request = next.getAndIncrement(); request < requests; request = next.getAndIncrement()) {
+            long requestStart = System.nanoTime();
+            if (send(pathOf.apply(request)) != 200) {
+              errors.incrementAndGet();
+            }
+            latencies[request] = System.nanoTime() - requestStart;
+          }
+        }));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+    return LoadTestReport.Scenario.of(endpoint.name + "-" + mix, latencies, errors.get(), System.nanoTime() - start);
+  }
+
+  private int send(String path) {
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+    try {
+      return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Maps a key to a distinct date range: the start cycles through the days, the length grows every cycle.
+   */
+  private static LocalDate from(int key) {
+    return FIRST_DAY.plusDays(key % DAYS);
+  }
+
+  private static LocalDate to(int key) {
+    return from(key).plusDays(1 + key / DAYS);
+  }
+
+  private static final class Endpoint {
+    private final String name;
+    private final long distinctKeys;
+    private final IntFunction<String> path;
+
+    private Endpoint(String name, long distinctKeys, IntFunction<String> path) {
+      this.name = name;
+      this.distinctKeys = distinctKeys;
+      this.path = path;
+    }
+  }
+
+  /**
+   * Replaces the Redis backed cache with an in-process one, and the invalidation listener
+   * container with one without listeners, which never subscribes to Redis.
+   */
+  @TestConfiguration
+  @ConditionalOnProperty(name = "loadtest.redis", havingValue = "local", matchIfMissing = true)
+  static class LocalCacheConfig {
+
+    @Bean
+    CryptoCache cryptoCache(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+      return new LocalCryptoCache(redisTemplate, meterRegistry);
+    }
+
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer(JedisConnectionFactory jedisConnectionFactory) {
+      var container = new RedisMessageListenerContainer();
+      container.setConnectionFactory(jedisConnectionFactory);
+      return container;
+    }
+  }
+}
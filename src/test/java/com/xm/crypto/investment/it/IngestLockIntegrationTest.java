@@ -0,0 +1,64 @@
+package com.xm.crypto.investment.it;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.repository.IngestLockRepository;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class IngestLockIntegrationTest extends AbstractIntegrationTest {
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+
+  @Autowired
+  private IngestLockRepository ingestLockRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void testAcquire_secondAcquirerWaitsForTheFirst() throws Exception {
+    var first = ingestLockRepository.acquire(POLL_INTERVAL);
+    var second = CompletableFuture.supplyAsync(() -> {
+      try {
+        return ingestLockRepository.acquire(POLL_INTERVAL);
+      } catch (InterruptedException e) {
+        throw new CompletionException(e);
+      }
+    });
+    try {
+      Thread.sleep(500);
+      assertFalse(second.isDone());
+      first.verify();
+    } finally {
+      first.close();
+    }
+
+    try (var lock = second.get(10, TimeUnit.SECONDS)) {
+      lock.verify();
+      assertThrows(IllegalStateException.class, first::verify);
+    }
+  }
+
+  @Test
+  public void testVerify_droppedConnectionLosesTheLock() throws Exception {
+    try (var lock = ingestLockRepository.acquire(POLL_INTERVAL)) {
+      lock.verify();
+
+      jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_locks " +
+        "WHERE locktype = 'advisory' AND ((classid::int8 << 32) | objid::int8) = ?", Boolean.class, 0x63727970746FL);
+
+      assertThrows(IllegalStateException.class, lock::verify);
+      // the lock is free for the next replica
+      try (var next = ingestLockRepository.acquire(POLL_INTERVAL)) {
+        next.verify();
+      }
+    }
+    assertTrue(jdbcTemplate.queryForList("SELECT pid FROM pg_locks WHERE locktype = 'advisory'").isEmpty());
+  }
+}
@@ -0,0 +1,88 @@
+package com.xm.crypto.investment.it;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.model.PriceBatch;
+import com.xm.crypto.investment.repository.CryptoDataJdbcRepository;
+import com.xm.crypto.investment.repository.CryptoDataRepository;
+import com.xm.crypto.investment.repository.CryptoPriceBlockRepository;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import com.xm.crypto.investment.store.PriceBlockStore;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "crypto.read-backend=blocks")
+public class PriceBlockStoreIntegrationTest extends AbstractIntegrationTest {
+  @Autowired
+  private PriceBlockStore priceBlockStore;
+  @Autowired
+  private CryptoPriceBlockRepository cryptoPriceBlockRepository;
+  @Autowired
+  private CryptoDataRepository cryptoDataRepository;
+  @Autowired
+  private CryptoDataJdbcRepository cryptoDataJdbcRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @After
+  public void deleteRunningDayPrices() {
+    jdbcTemplate.update("DELETE FROM crypto_data WHERE date_time >= ?", LocalDate.now(ZoneOffset.UTC).atStartOfDay());
+  }
+
+  @Test
+  public void testSummarize_sealedDaysAndTailMatchRawQuery() {
+    var today = LocalDate.now(ZoneOffset.UTC);
+    // prices of the running day are not sealed and read from crypto_data
+    var batch = new PriceBatch(2);
+    batch.add(today.atTime(1, 0).toInstant(ZoneOffset.UTC).toEpochMilli(), "BTC",
+      FixedPointPrice.fromBigDecimal(new BigDecimal("12345.6789")));
+    batch.add(today.atTime(2, 0).toInstant(ZoneOffset.UTC).toEpochMilli(), "BTC",
+      FixedPointPrice.fromBigDecimal(new BigDecimal("98765.4321")));
+    cryptoDataJdbcRepository.upsertAll(batch);
+
+    priceBlockStore.sealClosedDays();
+
+    assertTrue(cryptoPriceBlockRepository.findSealedUntil().orElseThrow().isAfter(LocalDate.of(2022, 2, 1)));
+    var endOfToday = today.atTime(LocalTime.MAX);
+    for (LocalDateTime[] window : List.of(
+      new LocalDateTime[] {LocalDateTime.of(2022, 1, 1, 0, 0), endOfToday},
+      new LocalDateTime[] {LocalDateTime.of(2022, 1, 5, 12, 30), LocalDateTime.of(2022, 1, 20, 6, 15)},
+      new LocalDateTime[] {LocalDateTime.of(2022, 1, 31, 23, 0), endOfToday},
+      new LocalDateTime[] {LocalDateTime.of(2022, 1, 10, 0, 0), LocalDateTime.of(2022, 1, 10, 23, 59, 59)})) {
+      var expected = bySymbol(cryptoDataRepository.calculateCryptosSummary(window[0], window[1]));
+      var actual = bySymbol(priceBlockStore.summarize(window[0], window[1]));
+
+      assertEquals(expected.keySet(), actual.keySet());
+      expected.forEach((symbol, summary) -> {
+        var block = actual.get(symbol);
+        assertEquals(summary.getMinPrice(), block.getMinPrice());
+        assertEquals(summary.getMaxPrice(), block.getMaxPrice());
+        assertEquals(summary.getOldestPrice(), block.getOldestPrice());
+        assertEquals(summary.getNewestPrice(), block.getNewestPrice());
+        var single = priceBlockStore.summarize(symbol, window[0], window[1]).orElseThrow();
+        assertEquals(summary.getMinPrice(), single.getMinPrice());
+        assertEquals(summary.getMaxPrice(), single.getMaxPrice());
+        assertEquals(summary.getOldestPrice(), single.getOldestPrice());
+        assertEquals(summary.getNewestPrice(), single.getNewestPrice());
+      });
+    }
+  }
+
+  private static Map<String, CryptoSummaryView> bySymbol(List<CryptoSummaryView> summaries) {
+    return summaries.stream().collect(Collectors.toMap(CryptoSummaryView::getSymbol, Function.identity()));
+  }
+}
@@ -0,0 +1,36 @@
+package com.xm.crypto.investment.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class FixedPointPriceTest {
+
+  @Test
+  void testToBigDecimal_matchesBigDecimalValueOfDouble() {
+    for (String price : new String[] {"46813.21", "0.5", "47000", "0.00000001", "3715.32", "0.46"}) {
+      var fixedPoint = FixedPointPrice.fromBigDecimal(new BigDecimal(price));
+
+      assertEquals(BigDecimal.valueOf(Double.parseDouble(price)).stripTrailingZeros(),
+        FixedPointPrice.toBigDecimal(fixedPoint).stripTrailingZeros(), price);
+    }
+    assertEquals("46813.21", FixedPointPrice.toBigDecimal(4681321000000L).toString());
+    assertEquals("47000.0", FixedPointPrice.toBigDecimal(4700000000000L).toString());
+  }
+
+  @Test
+  void testAppendTo() {
+    assertEquals("46813.21", FixedPointPrice.appendTo(new StringBuilder(), 4681321000000L).toString());
+    assertEquals("0.05", FixedPointPrice.appendTo(new StringBuilder(), 5_000_000L).toString());
+    assertEquals("0.00000001", FixedPointPrice.appendTo(new StringBuilder(), 1L).toString());
+    assertEquals("-1.012", FixedPointPrice.appendTo(new StringBuilder(), -101_200_000L).toString());
+    assertEquals("7", FixedPointPrice.appendTo(new StringBuilder(), 700_000_000L).toString());
+  }
+
+  @Test
+  void testFromBigDecimal_roundsHalfEven() {
+    assertEquals(12345678L, FixedPointPrice.fromBigDecimal(new BigDecimal("0.123456785")));
+    assertEquals(12345680L, FixedPointPrice.fromBigDecimal(new BigDecimal("0.123456795")));
+  }
+}
@@ -0,0 +1,168 @@
+package com.xm.crypto.investment.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.xm.crypto.investment.repository.projection.CryptoSummary;
+import com.xm.crypto.investment.repository.projection.CryptoSummaryView;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DailyRollupCryptoSummarySourceTest {
+
+  // the head day holds the minimum, the tail day the maximum, a tick sits at midnight of the tail day
+  private static final List<Tick> TICKS = List.of(
+    new Tick("BTC", LocalDateTime.of(2022, 1, 1, 0, 0), 100),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 1, 6, 0), 20),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 1, 23, 59), 90),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 2, 12, 0), 80),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 3, 0, 0), 70),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 3, 9, 0), 300),
+    new Tick("BTC", LocalDateTime.of(2022, 1, 3, 18, 0), 60),
+    new Tick("ETH", LocalDateTime.of(2022, 1, 1, 3, 0), 10),
+    new Tick("ETH", LocalDateTime.of(2022, 1, 2, 3, 0), 11),
+    // listed on the tail day only
+    new Tick("DOGE", LocalDateTime.of(2022, 1, 3, 6, 0), 1));
+
+  private CryptoDailySummaryRepository cryptoDailySummaryRepository;
+  private DailyRollupCryptoSummarySource source;
+
+  @BeforeEach
+  void setUp() {
+    cryptoDailySummaryRepository = mock(CryptoDailySummaryRepository.class);
+    var cryptoDataRepository = mock(CryptoDataRepository.class);
+    // the rollup answers whole days [dayFrom, dayTo), crypto_data the inclusive window
+    when(cryptoDailySummaryRepository.summarizeDays(any(LocalDate.class), any(LocalDate.class)))
+      .thenAnswer(invocation -> List.copyOf(summarize(days(invocation.getArgument(0), invocation.getArgument(1)))
+        .values()));
+    when(cryptoDailySummaryRepository.summarizeDays(anyString(), any(LocalDate.class), any(LocalDate.class)))
+      .thenAnswer(invocation -> Optional.ofNullable(summarize(days(invocation.getArgument(1), invocation.getArgument(2))
+        .and(tick -> tick.symbol.equals(invocation.getArgument(0)))).get(invocation.<String>getArgument(0))));
+    when(cryptoDataRepository.calculateCryptosSummary(any(LocalDateTime.class), any(LocalDateTime.class)))
+      .thenAnswer(invocation -> List.copyOf(summarize(window(invocation.getArgument(0), invocation.getArgument(1)))
+        .values()));
+    when(cryptoDataRepository.calculateCryptoSummary(anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+      .thenAnswer(invocation -> Optional.ofNullable(summarize(window(invocation.getArgument(1), invocation.getArgument(2)))
+        .get(invocation.<String>getArgument(0))));
+    source = new DailyRollupCryptoSummarySource(cryptoDailySummaryRepository, cryptoDataRepository);
+  }
+
+  @Test
+  void testSummarize_wholeHeadDaysAndPartialTailDay() {
+    var dateFrom = LocalDateTime.of(2022, 1, 1, 0, 0);
+    var dateTo = LocalDateTime.of(2022, 1, 3, 12, 0);
+
+    assertSummaries(dateFrom, dateTo);
+    assertEquals(new CryptoSummary("BTC", 20L, 300L, 100L, 300L), source.summarize("BTC", dateFrom, dateTo).get());
+    verify(cryptoDailySummaryRepository).summarizeDays(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 3));
+  }
+
+  @Test
+  void testSummarize_windowEndingAtMidnight_tickAtMidnightCountedOnce() {
+    var dateFrom = LocalDateTime.of(2022, 1, 2, 0, 0);
+    var dateTo = LocalDateTime.of(2022, 1, 3, 0, 0);
+
+    assertSummaries(dateFrom, dateTo);
+    assertEquals(new CryptoSummary("BTC", 70L, 80L, 80L, 70L), source.summarize("BTC", dateFrom, dateTo).get());
+  }
+
+  @Test
+  void testSummarize_partialHeadDay_readFromCryptoData() {
+    var dateFrom = LocalDateTime.of(2022, 1, 1, 6, 0);
+    var dateTo = LocalDateTime.of(2022, 1, 3, 23, 59);
+
+    assertSummaries(dateFrom, dateTo);
+    assertEquals(new CryptoSummary("BTC", 20L, 300L, 20L, 60L), source.summarize("BTC", dateFrom, dateTo).get());
+    verify(cryptoDailySummaryRepository, never()).summarizeDays(any(LocalDate.class), any(LocalDate.class));
+    verify(cryptoDailySummaryRepository, never()).summarizeDays(anyString(), any(LocalDate.class), any(LocalDate.class));
+  }
+
+  @Test
+  void testSummarize_withinOneDay_readFromCryptoData() {
+    var dateFrom = LocalDateTime.of(2022, 1, 3, 0, 0);
+    var dateTo = LocalDateTime.of(2022, 1, 3, 10, 0);
+
+    assertSummaries(dateFrom, dateTo);
+    assertTrue(source.summarize("ETH", dateFrom, dateTo).isEmpty());
+    verify(cryptoDailySummaryRepository, never()).summarizeDays(any(LocalDate.class), any(LocalDate.class));
+  }
+
+  @Test
+  void testSummarize_cryptoOnlyInRollupOrOnlyInTail() {
+    var dateFrom = LocalDateTime.of(2022, 1, 1, 0, 0);
+    var dateTo = LocalDateTime.of(2022, 1, 3, 23, 59);
+
+    assertSummaries(dateFrom, dateTo);
+    assertEquals(new CryptoSummary("ETH", 10L, 11L, 10L, 11L), source.summarize("ETH", dateFrom, dateTo).get());
+    assertEquals(new CryptoSummary("DOGE", 1L, 1L, 1L, 1L), source.summarize("DOGE", dateFrom, dateTo).get());
+  }
+
+  private void assertSummaries(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    var expected = summarize(window(dateFrom, dateTo));
+    var actual = source.summarize(dateFrom, dateTo).stream()
+      .collect(Collectors.toMap(CryptoSummaryView::getSymbol, Function.identity()));
+
+    assertEquals(expected.keySet(), actual.keySet());
+    expected.forEach((symbol, summary) -> {
+      assertEquals(summary, toSummary(actual.get(symbol)), symbol);
+      assertEquals(summary, toSummary(source.summarize(symbol, dateFrom, dateTo).get()), symbol);
+    });
+  }
+
+  private static Predicate<Tick> days(LocalDate dayFrom, LocalDate dayTo) {
+    return tick -> !tick.dateTime.toLocalDate().isBefore(dayFrom) && tick.dateTime.toLocalDate().isBefore(dayTo);
+  }
+
+  private static Predicate<Tick> window(LocalDateTime dateFrom, LocalDateTime dateTo) {
+    return tick -> !tick.dateTime.isBefore(dateFrom) && !tick.dateTime.isAfter(dateTo);
+  }
+
+  /**
+   * Summarizes the matching ticks of each crypto directly, as the queries do.
+   */
+  private static Map<String, CryptoSummary> summarize(Predicate<Tick> filter) {
+    var summaries = new TreeMap<String, CryptoSummary>();
+    TICKS.stream().filter(filter).collect(Collectors.groupingBy(tick -> tick.symbol)).forEach((symbol, ticks) -> {
+      ticks.sort(Comparator.comparing(tick -> tick.dateTime));
+      summaries.put(symbol, new CryptoSummary(symbol,
+        ticks.stream().mapToLong(tick -> tick.price).min().getAsLong(),
+        ticks.stream().mapToLong(tick -> tick.price).max().getAsLong(),
+        ticks.get(0).price,
+        ticks.get(ticks.size() - 1).price));
+    });
+    return summaries;
+  }
+
+  private static CryptoSummary toSummary(CryptoSummaryView view) {
+    return new CryptoSummary(view.getSymbol(), view.getMinPrice(), view.getMaxPrice(), view.getOldestPrice(),
+      view.getNewestPrice());
+  }
+
+  private static final class Tick {
+    private final String symbol;
+    private final LocalDateTime dateTime;
+    private final long price;
+
+    private Tick(String symbol, LocalDateTime dateTime, long price) {
+      this.symbol = symbol;
+      this.dateTime = dateTime;
+      this.price = price;
+    }
+  }
+}
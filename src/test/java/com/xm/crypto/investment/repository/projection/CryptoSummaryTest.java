@@ -0,0 +1,47 @@
+package com.xm.crypto.investment.repository.projection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class CryptoSummaryTest {
+
+  @Test
+  void testMerge_missingWindow() {
+    var summary = new CryptoSummary("BTC", 1L, 5L, 2L, 3L);
+
+    assertSame(summary, CryptoSummary.merge(summary, null));
+    assertSame(summary, CryptoSummary.merge(null, summary));
+    assertNull(CryptoSummary.merge(null, null));
+  }
+
+  @Test
+  void testMerge_adjacentWindows() {
+    var earlier = new CryptoSummary("BTC", 10L, 50L, 20L, 30L);
+    var later = new CryptoSummary("BTC", 5L, 40L, 35L, 15L);
+
+    assertEquals(new CryptoSummary("BTC", 5L, 50L, 20L, 15L), CryptoSummary.merge(earlier, later));
+    // oldest and newest depend on the order of the windows, min and max do not
+    assertEquals(new CryptoSummary("BTC", 5L, 50L, 35L, 30L), CryptoSummary.merge(later, earlier));
+  }
+
+  @Test
+  void testMerge_foldOfDays() {
+    var days = new CryptoSummary[] {
+      new CryptoSummary("BTC", 7L, 9L, 8L, 9L),
+      new CryptoSummary("BTC", 3L, 9L, 9L, 4L),
+      new CryptoSummary("BTC", 4L, 12L, 4L, 11L)
+    };
+
+    CryptoSummaryView leftFold = null;
+    for (CryptoSummary day : days) {
+      leftFold = CryptoSummary.merge(leftFold, day);
+    }
+    var rightFold = CryptoSummary.merge(days[0], CryptoSummary.merge(days[1], days[2]));
+
+    assertEquals(new CryptoSummary("BTC", 3L, 12L, 8L, 11L), leftFold);
+    assertEquals(leftFold, rightFold);
+  }
+}
@@ -0,0 +1,54 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.xm.crypto.investment.exception.InvalidRangeException;
+import com.xm.crypto.investment.model.CryptoDailySummary;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CryptoLeaderboardServiceTest {
+
+  private static final LocalDate DAY = LocalDate.of(2022, 1, 1);
+
+  @Test
+  void testRank_ordersEachDayByNormalizedRange() {
+    var leaderboard = CryptoLeaderboardService.rank(List.of(
+      summary("BTC", DAY.plusDays(1), "100", "110"),
+      summary("BTC", DAY, "100", "102"),
+      summary("ETH", DAY, "10", "11"),
+      summary("XRP", DAY, "1", "1.1"),
+      summary("DOGE", DAY, "0.1", "0.2")), 3);
+
+    assertEquals(4, leaderboard.size());
+    assertEquals(DAY, leaderboard.get(0).getDay());
+    assertEquals("DOGE", leaderboard.get(0).getSymbol());
+    assertEquals(1, leaderboard.get(0).getRank());
+    assertEquals(new BigDecimal("1.0"), leaderboard.get(0).getNormalizedPrice());
+    assertEquals("ETH", leaderboard.get(1).getSymbol());
+    assertEquals("XRP", leaderboard.get(2).getSymbol());
+    assertEquals(3, leaderboard.get(2).getRank());
+    assertEquals(DAY.plusDays(1), leaderboard.get(3).getDay());
+    assertEquals(1, leaderboard.get(3).getRank());
+  }
+
+  @Test
+  void testGetDailyLeaderboard_emptyRange_rejected() {
+    var service = new CryptoLeaderboardService(null, null);
+
+    assertThrows(InvalidRangeException.class, () -> service.getDailyLeaderboard(DAY, DAY, null));
+    assertThrows(InvalidRangeException.class, () -> service.getDailyLeaderboard(DAY.plusDays(1), DAY, null));
+  }
+
+  private static CryptoDailySummary summary(String symbol, LocalDate day, String low, String high) {
+    var summary = new CryptoDailySummary();
+    summary.setSymbol(symbol);
+    summary.setDay(day);
+    summary.setLowPrice(new BigDecimal(low));
+    summary.setHighPrice(new BigDecimal(high));
+    return summary;
+  }
+}
@@ -0,0 +1,103 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import com.xm.crypto.investment.model.PriceBatch;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CsvPriceParserTest {
+
+  @Test
+  void testParse_headerCrLfAndMissingTrailingLineFeed() throws IOException {
+    var csv = "timestamp,symbol,price\r\n1641009600000,BTC,46813.21\r\n\r\n1641020400000,BTC,46979.61";
+    var batches = new ArrayList<PriceBatch>();
+
+    new CsvPriceParser(10, batches::add).parse(content(csv), 0, csv.length(), 1024, true);
+
+    assertEquals(1, batches.size());
+    var batch = batches.get(0);
+    assertEquals(2, batch.size());
+    assertEquals(1641009600000L, batch.getTimestamp(0));
+    assertEquals("BTC", batch.getSymbol(0));
+    assertEquals(4681321000000L, batch.getPrice(0));
+    assertEquals(4697961000000L, batch.getPrice(1));
+  }
+
+  @Test
+  void testParse_matchesBigDecimal() throws IOException {
+    var random = new Random(7);
+    var csv = new StringBuilder("timestamp,symbol,price\n");
+    var expected = new ArrayList<String>();
+    for (int i = 0; i < 5000; i++) {
+      var price = i % 100 == 0 ? "1.5E-7" : i % 100 == 1 ? "0.123456785" : String.format("%d.%0" + (1 + random.nextInt(8)) + "d",
+        random.nextInt(100_000), random.nextInt(10_000));
+      expected.add(price);
+      csv.append(1641009600000L + i).append(i % 2 == 0 ? ",BTC," : ",ETH,").append(price).append('\n');
+    }
+    var batches = new ArrayList<PriceBatch>();
+
+    new CsvPriceParser(64, batches::add).parse(content(csv.toString()), 0, csv.length(), 1024, true);
+
+    var prices = flatten(batches);
+    assertEquals(expected.size(), prices.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(FixedPointPrice.fromBigDecimal(new BigDecimal(expected.get(i))), prices.get(i), expected.get(i));
+    }
+  }
+
+  @Test
+  void testParse_leavesIncompleteTrailingLine() throws IOException {
+    var csv = "1,BTC,1.5\n2,BTC,2.5\n3,BTC,3";
+    var batches = new ArrayList<PriceBatch>();
+
+    long parsed = new CsvPriceParser(10, batches::add).parse(content(csv), 0, csv.length(), 12, false);
+
+    assertEquals(20, parsed);
+    assertEquals(2, batches.get(0).size());
+  }
+
+  @Test
+  void testParseLines_stopsAtIncompleteLine() {
+    var bytes = "1,BTC,1.5\n2,BTC,2".getBytes(StandardCharsets.US_ASCII);
+    var batches = new ArrayList<PriceBatch>();
+    var parser = new CsvPriceParser(10, batches::add);
+
+    int consumed = parser.parseLines(ByteBuffer.wrap(bytes), 0, bytes.length, false);
+    parser.flush();
+
+    assertEquals(10, consumed);
+    assertEquals(1, batches.get(0).size());
+  }
+
+  @Test
+  void testParse_malformedPrice() {
+    var parser = new CsvPriceParser(10, batch -> { });
+
+    var csv = "1641009600000,BTC,abc\n";
+
+    assertThrows(IllegalArgumentException.class, () -> parser.parse(content(csv), 0, csv.length(), 1024, true));
+  }
+
+  private static PriceFileContent content(String csv) {
+    return PriceFileContent.of(csv.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static List<Long> flatten(List<PriceBatch> batches) {
+    var prices = new ArrayList<Long>();
+    for (PriceBatch batch : batches) {
+      for (int i = 0; i < batch.size(); i++) {
+        prices.add(batch.getPrice(i));
+      }
+    }
+    return prices;
+  }
+}
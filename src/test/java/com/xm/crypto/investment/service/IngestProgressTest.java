@@ -0,0 +1,39 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class IngestProgressTest {
+
+  @Test
+  void testPercent_knownOnceEveryFileIsOpened() {
+    var progress = new IngestProgress();
+    progress.start(2);
+    progress.addFile(300);
+    progress.addStoredBytes(100);
+
+    assertEquals(0, progress.getPercent());
+
+    progress.addFile(100);
+    progress.addStoredBytes(100);
+
+    assertEquals(50, progress.getPercent());
+    assertEquals(IngestProgress.State.RUNNING, progress.snapshot().getState());
+
+    progress.complete();
+
+    assertEquals(100, progress.getPercent());
+  }
+
+  @Test
+  void testFail() {
+    var progress = new IngestProgress();
+    progress.start(1);
+
+    progress.fail(new IllegalStateException("broken"));
+
+    assertEquals(IngestProgress.State.FAILED, progress.getState());
+    assertEquals("java.lang.IllegalStateException: broken", progress.snapshot().getError());
+  }
+}
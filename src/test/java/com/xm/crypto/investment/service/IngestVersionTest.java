@@ -0,0 +1,44 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.xm.crypto.investment.model.IngestCheckpoint;
+import com.xm.crypto.investment.repository.CryptoDataPartitionRepository;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IngestVersionTest {
+
+  @Test
+  void testVersion_derivedFromStoredOffsetsOnly() {
+    var version = IngestVersion.Version.of(List.of(
+      new IngestCheckpoint("BTC_values.csv", 4096, "a1", LocalDateTime.of(2022, 1, 1, 10, 0)),
+      new IngestCheckpoint("ETH_values.csv", 2048, "b2", LocalDateTime.of(2022, 1, 2, 12, 30))), null);
+    var touched = IngestVersion.Version.of(List.of(
+      new IngestCheckpoint("BTC_values.csv", 4096, "a1", LocalDateTime.of(2023, 5, 1, 10, 0)),
+      new IngestCheckpoint("ETH_values.csv", 2048, "b2", null)), null);
+    var appended = IngestVersion.Version.of(List.of(
+      new IngestCheckpoint("BTC_values.csv", 4096, "a1", LocalDateTime.of(2022, 1, 1, 10, 0)),
+      new IngestCheckpoint("ETH_values.csv", 2100, "b3", LocalDateTime.of(2022, 1, 2, 12, 30))), null);
+
+    assertEquals(version.getId(), touched.getId());
+    assertNotEquals(version.getId(), appended.getId());
+    assertEquals(Instant.parse("2022-01-02T12:30:00Z"), version.getLastModified());
+  }
+
+  @Test
+  void testVersion_changedByDetachedMonths() {
+    var checkpoints = List.of(
+      new IngestCheckpoint("BTC_values.csv", 4096, "a1", LocalDateTime.of(2022, 1, 1, 10, 0)));
+    var version = IngestVersion.Version.of(checkpoints, null);
+    var detached = IngestVersion.Version.of(checkpoints, new CryptoDataPartitionRepository.Retention(
+      LocalDate.of(2022, 1, 1), LocalDateTime.of(2023, 3, 1, 2, 0)));
+
+    assertNotEquals(version.getId(), detached.getId());
+    assertEquals(Instant.parse("2023-03-01T02:00:00Z"), detached.getLastModified());
+  }
+}
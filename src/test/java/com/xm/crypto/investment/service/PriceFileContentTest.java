@@ -0,0 +1,40 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+class PriceFileContentTest {
+
+  @Test
+  void testOpen_spoolsNonFileResourceAndDeletesItOnClose() throws IOException {
+    var csv = "timestamp,symbol,price\n1641009600000,BTC,46813.21\n1641020400000,BTC,46979.61\n";
+    var resource = new ByteArrayResource(csv.getBytes(StandardCharsets.US_ASCII));
+    var tempDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+    var spooled = spooledFiles(tempDirectory);
+
+    try (var content = PriceFileContent.open(resource, true)) {
+      assertEquals(csv.length(), content.size());
+      assertEquals(23, content.nextLineStart(0));
+      var line = StandardCharsets.US_ASCII.decode(content.slice(23, 48)).toString();
+      assertEquals("1641009600000,BTC,46813.2", line);
+    }
+
+    assertEquals(spooled, spooledFiles(tempDirectory));
+  }
+
+  private static long spooledFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString())
+        .filter(name -> name.startsWith("price-file-"))
+        .collect(Collectors.counting());
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowRangeTest {
+
+  @Test
+  void testAdd_matchesBruteForce() {
+    var random = new Random(11);
+    int count = 2000;
+    var timestamps = new long[count];
+    var prices = new long[count];
+    long timestamp = 0;
+    for (int i = 0; i < count; i++) {
+      timestamp += 1 + random.nextInt(i % 300 < 100 ? 2 : 20);
+      timestamps[i] = timestamp;
+      prices[i] = random.nextInt(10_000) * 1_000_000L;
+    }
+    long firstStart = 50;
+    long window = 400;
+    long step = 70;
+    int windowCount = 200;
+    var actual = new ArrayList<long[]>();
+    var range = new SlidingWindowRange(firstStart, window, step, windowCount,
+      (index, min, max) -> actual.add(new long[] {index, min, max}));
+
+    for (int i = 0; i < count; i++) {
+      range.add(timestamps[i], prices[i]);
+    }
+    range.finish();
+
+    var expected = new ArrayList<long[]>();
+    for (int w = 0; w < windowCount; w++) {
+      long start = firstStart + w * step;
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (int i = 0; i < count; i++) {
+        if (timestamps[i] >= start && timestamps[i] < start + window) {
+          min = Math.min(min, prices[i]);
+          max = Math.max(max, prices[i]);
+        }
+      }
+      if (min != Long.MAX_VALUE) {
+        expected.add(new long[] {w, min, max});
+      }
+    }
+    assertWindows(expected, actual);
+  }
+
+  @Test
+  void testFinish_skipsEmptyWindows() {
+    var actual = new ArrayList<long[]>();
+    var range = new SlidingWindowRange(0, 10, 10, 3,
+      (index, min, max) -> actual.add(new long[] {index, min, max}));
+
+    range.add(1, 500);
+    range.add(2, 300);
+    range.add(25, 700);
+    range.finish();
+
+    assertWindows(List.of(new long[] {0, 300, 500}, new long[] {2, 700, 700}), actual);
+  }
+
+  private static void assertWindows(List<long[]> expected, List<long[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i)[0], actual.get(i)[0]);
+      assertEquals(expected.get(i)[1], actual.get(i)[1]);
+      assertEquals(expected.get(i)[2], actual.get(i)[2]);
+    }
+  }
+}
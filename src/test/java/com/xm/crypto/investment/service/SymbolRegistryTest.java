@@ -0,0 +1,36 @@
+package com.xm.crypto.investment.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SymbolRegistryTest {
+
+  @Test
+  void testIsSupported_acceptsEverySymbolUntilLoadCompleted() {
+    var registry = new SymbolRegistry(null);
+    registry.update(List.of("ETH", "BTC"), false);
+
+    assertTrue(registry.isSupported("DOGE"));
+
+    registry.update(List.of("ETH", "BTC"), true);
+
+    assertTrue(registry.isSupported("BTC"));
+    assertFalse(registry.isSupported("DOGE"));
+    assertEquals(List.of("BTC", "ETH"), registry.getSymbols());
+  }
+
+  @Test
+  void testUpdate_laterPartialRefreshKeepsRejecting() {
+    var registry = new SymbolRegistry(null);
+    registry.update(List.of("BTC"), true);
+
+    registry.update(List.of("BTC", "XRP"), false);
+
+    assertTrue(registry.isSupported("XRP"));
+    assertFalse(registry.isSupported("DOGE"));
+  }
+}
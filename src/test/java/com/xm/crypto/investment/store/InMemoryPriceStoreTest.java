@@ -0,0 +1,103 @@
+package com.xm.crypto.investment.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.model.PriceBatch;
+import com.xm.crypto.investment.service.PricesDetachedEvent;
+import com.xm.crypto.investment.service.PricesIngestFailedEvent;
+import com.xm.crypto.investment.service.PricesIngestedEvent;
+import java.time.LocalDateTime;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class InMemoryPriceStoreTest {
+
+  private static final LocalDateTime FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+  private static final LocalDateTime TO = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+  @Test
+  void testOnPrices_mergedOnceIngested() {
+    var store = new InMemoryPriceStore();
+    store.onPrices(batch("BTC", new long[] {30, 40}, new long[] {300, 400}));
+    store.onPrices(batch("BTC", new long[] {10, 20, 30}, new long[] {100, 200, 700}));
+
+    assertTrue(store.summarize(FROM, TO).isEmpty());
+
+    store.onPricesIngested(new PricesIngestedEvent(this, true, true));
+
+    var summary = store.summarize("BTC", FROM, TO).orElseThrow();
+    assertEquals(100L, summary.getOldestPrice());
+    assertEquals(400L, summary.getNewestPrice());
+    // the later batch replaces the price of an equal timestamp
+    assertEquals(700L, summary.getMaxPrice());
+  }
+
+  @Test
+  void testOnPrices_interleavedChunksMatchLinearScan() {
+    var random = new Random(7);
+    int chunks = 40;
+    int rows = 500;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    var store = new InMemoryPriceStore();
+    // chunks of a file parsed concurrently arrive in any order, each in time order
+    for (int chunk = chunks - 1; chunk >= 0; chunk -= 2) {
+      for (int part : new int[] {chunk, chunks - 1 - chunk}) {
+        var timestamps = new long[rows];
+        var prices = new long[rows];
+        for (int i = 0; i < rows; i++) {
+          timestamps[i] = (part * rows + i) * 60_000L;
+          prices[i] = 1 + random.nextInt(1_000_000);
+          min = Math.min(min, prices[i]);
+          max = Math.max(max, prices[i]);
+        }
+        store.onPrices(batch("ETH", timestamps, prices));
+      }
+    }
+
+    assertEquals((long) chunks * rows, store.mergePending());
+
+    var summary = store.summarize("ETH", FROM, TO).orElseThrow();
+    assertEquals(min, summary.getMinPrice());
+    assertEquals(max, summary.getMaxPrice());
+  }
+
+  @Test
+  void testOnIngestFailed_mergesBufferedPrices() {
+    var store = new InMemoryPriceStore();
+    store.onPrices(batch("BTC", new long[] {10, 20}, new long[] {100, 200}));
+
+    store.onIngestFailed(new PricesIngestFailedEvent(this, new IllegalStateException("database is down")));
+
+    assertEquals(200L, store.summarize("BTC", FROM, TO).orElseThrow().getNewestPrice());
+    // the retried load replays the same rows
+    store.onPrices(batch("BTC", new long[] {10, 20}, new long[] {100, 200}));
+    assertEquals(2, store.mergePending());
+    assertEquals(100L, store.summarize("BTC", FROM, TO).orElseThrow().getOldestPrice());
+  }
+
+  @Test
+  void testOnPricesDetached_dropsDetachedMonths() {
+    var store = new InMemoryPriceStore();
+    var detachedBefore = LocalDateTime.of(1970, 1, 1, 0, 0, 1);
+    store.onPrices(batch("BTC", new long[] {10, 2000}, new long[] {100, 200}));
+    store.onPrices(batch("DOGE", new long[] {20}, new long[] {5}));
+
+    store.onPricesDetached(new PricesDetachedEvent(this, detachedBefore));
+
+    var summary = store.summarize("BTC", FROM, TO).orElseThrow();
+    assertEquals(200L, summary.getOldestPrice());
+    assertEquals(200L, summary.getMinPrice());
+    assertTrue(store.summarize("DOGE", FROM, TO).isEmpty());
+    assertEquals(1, store.summarize(FROM, TO).size());
+  }
+
+  private static PriceBatch batch(String symbol, long[] timestamps, long[] prices) {
+    var batch = new PriceBatch(timestamps.length);
+    for (int i = 0; i < timestamps.length; i++) {
+      batch.add(timestamps[i], symbol, prices[i]);
+    }
+    return batch;
+  }
+}
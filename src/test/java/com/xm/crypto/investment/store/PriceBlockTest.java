@@ -0,0 +1,100 @@
+package com.xm.crypto.investment.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PriceBlockTest {
+
+  @Test
+  void testEncode_roundTrip() {
+    var random = new Random(11);
+    int length = 5000;
+    var timestamps = new long[length];
+    var prices = new long[length];
+    long timestamp = 1641009600000L;
+    long price = 46813_21000000L;
+    for (int i = 0; i < length; i++) {
+      // mostly regular intervals with jitter and gaps, prices with repeats and jumps
+      timestamp += i % 50 == 0 ? 1 + random.nextInt(1_000_000_000) : 3_600_000 + (i % 7 == 0 ? random.nextInt(5000) - 2500 : 0);
+      price = i % 3 == 0 ? price : Math.max(1, price + (random.nextInt(2_000_001) - 1_000_000) * 1000L);
+      timestamps[i] = timestamp;
+      prices[i] = i % 500 == 0 ? Long.MAX_VALUE - i : price;
+    }
+
+    var block = PriceBlock.fromBytes(PriceBlock.encode(timestamps, prices, length).toBytes());
+
+    var decodedTimestamps = new ArrayList<Long>();
+    var decodedPrices = new ArrayList<Long>();
+    block.forEach("BTC", Long.MIN_VALUE, Long.MAX_VALUE, (symbol, decodedTimestamp, decodedPrice) -> {
+      decodedTimestamps.add(decodedTimestamp);
+      decodedPrices.add(decodedPrice);
+    });
+    assertArrayEquals(timestamps, toArray(decodedTimestamps));
+    assertArrayEquals(prices, toArray(decodedPrices));
+    assertEquals(length, block.getCount());
+    assertEquals(timestamps[length - 1], block.getLastTimestamp());
+  }
+
+  @Test
+  void testEncode_regularSeriesIsCompact() {
+    int length = 24 * 365;
+    var timestamps = new long[length];
+    var prices = new long[length];
+    for (int i = 0; i < length; i++) {
+      timestamps[i] = 1641009600000L + i * 3_600_000L;
+      prices[i] = FixedPointPrice.fromBigDecimal(new BigDecimal("46813.21")) + (i / 10) * 100_000_000L;
+    }
+
+    var bytes = PriceBlock.encode(timestamps, prices, length).toBytes();
+
+    assertTrue(bytes.length < length * 2, "encoded " + length + " prices into " + bytes.length + " bytes");
+  }
+
+  @Test
+  void testSummarize_headerAndBoundary() {
+    var block = PriceBlock.encode(new long[] {10, 20, 30, 40, 50}, new long[] {500, 100, 900, 300, 400}, 5);
+
+    var covered = block.summarize("BTC", 0, 50);
+    assertEquals(100L, covered.getMinPrice());
+    assertEquals(900L, covered.getMaxPrice());
+    assertEquals(500L, covered.getOldestPrice());
+    assertEquals(400L, covered.getNewestPrice());
+
+    var boundary = block.summarize("BTC", 35, 60);
+    assertEquals(300L, boundary.getMinPrice());
+    assertEquals(400L, boundary.getMaxPrice());
+    assertEquals(300L, boundary.getOldestPrice());
+    assertEquals(400L, boundary.getNewestPrice());
+
+    assertNull(block.summarize("BTC", 51, 100));
+    assertNull(block.summarize("BTC", 21, 29));
+  }
+
+  @Test
+  void testSummarize_headerOnlyBlock() {
+    var block = PriceBlock.ofHeader(5, 10, 50, 100, 900, 500, 400);
+
+    assertEquals(900L, block.summarize("BTC", 10, 50).getMaxPrice());
+    assertNull(block.summarize("BTC", 60, 70));
+    assertThrows(IllegalStateException.class, () -> block.summarize("BTC", 20, 40));
+  }
+
+  @Test
+  void testEncode_rejectsUnorderedTimestamps() {
+    assertThrows(IllegalArgumentException.class, () -> PriceBlock.encode(new long[] {20, 10}, new long[] {1, 2}, 2));
+  }
+
+  private static long[] toArray(List<Long> values) {
+    return values.stream().mapToLong(Long::longValue).toArray();
+  }
+}
@@ -0,0 +1,83 @@
+package com.xm.crypto.investment.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.xm.crypto.investment.model.FixedPointPrice;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PriceSeriesTest {
+
+  @Test
+  void testSummarize_window() {
+    var series = PriceSeries.empty("BTC")
+      .merge(new long[] {10, 20, 30, 40, 50}, new long[] {500, 100, 900, 300, 400}, 5);
+
+    var summary = series.summarize(20, 40);
+    assertEquals("BTC", summary.getSymbol());
+    assertEquals(100L, summary.getMinPrice());
+    assertEquals(900L, summary.getMaxPrice());
+    assertEquals(100L, summary.getOldestPrice());
+    assertEquals(300L, summary.getNewestPrice());
+
+    assertNull(series.summarize(51, 100));
+    assertNull(series.summarize(21, 29));
+  }
+
+  @Test
+  void testMerge_unsortedBatchReplacesEqualTimestamps() {
+    var series = PriceSeries.empty("ETH")
+      .merge(new long[] {10, 30}, new long[] {100, 300}, 2)
+      .merge(new long[] {40, 30, 20, 30}, new long[] {400, 700, 200, 800}, 4);
+
+    assertEquals(4, series.size());
+    var summary = series.summarize(0, Long.MAX_VALUE);
+    assertEquals(100L, summary.getOldestPrice());
+    assertEquals(400L, summary.getNewestPrice());
+    assertEquals(800L, summary.getMaxPrice());
+  }
+
+  @Test
+  void testDropBefore() {
+    var series = PriceSeries.empty("BTC")
+      .merge(new long[] {10, 20, 30}, new long[] {100, 200, 300}, 3);
+
+    assertSame(series, series.dropBefore(5));
+    assertSame(series, series.dropBefore(10));
+    var dropped = series.dropBefore(15);
+    assertEquals(2, dropped.size());
+    assertEquals(200L, dropped.summarize(0, 100).getOldestPrice());
+    assertEquals(100L, series.summarize(0, 100).getOldestPrice());
+    assertEquals(0, series.dropBefore(31).size());
+  }
+
+  @Test
+  void testSummarize_matchesLinearScan() {
+    var random = new Random(42);
+    var timestamps = new long[1000];
+    var prices = new long[1000];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = i * 60_000L;
+      prices[i] = (long) (random.nextDouble() * 100 * FixedPointPrice.UNIT);
+    }
+    var series = PriceSeries.empty("XRP").merge(timestamps.clone(), prices.clone(), timestamps.length);
+
+    for (int run = 0; run < 200; run++) {
+      int from = random.nextInt(timestamps.length);
+      int to = from + random.nextInt(timestamps.length - from);
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (int i = from; i <= to; i++) {
+        min = Math.min(min, prices[i]);
+        max = Math.max(max, prices[i]);
+      }
+      var summary = series.summarize(timestamps[from], timestamps[to]);
+      assertEquals(min, summary.getMinPrice());
+      assertEquals(max, summary.getMaxPrice());
+      assertEquals(prices[from], summary.getOldestPrice());
+      assertEquals(prices[to], summary.getNewestPrice());
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.xm.crypto.investment.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PriceStoreSnapshotTest {
+
+  @Test
+  void testWriteRead_roundTrip() throws IOException {
+    var timestamps = new long[20_000];
+    var prices = new long[20_000];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = 1641009600000L + i * 60_000L;
+      prices[i] = 4681321000000L + i % 97;
+    }
+    var series = List.of(
+      PriceSeries.empty("BTC").merge(timestamps, prices, timestamps.length),
+      PriceSeries.empty("ETH").merge(new long[] {10, 20}, new long[] {300, 100}, 2),
+      PriceSeries.empty("XRP"));
+    var offsets = Map.of("BTC_values.csv", new PriceStoreSnapshot.FileOffset(1234, "abc"));
+    var path = Files.createTempFile("price-store", ".snapshot");
+    try {
+      PriceStoreSnapshot.write(path, series, offsets);
+
+      var snapshot = PriceStoreSnapshot.read(path);
+
+      assertEquals(offsets, snapshot.getFileOffsets());
+      assertEquals(3, snapshot.getSeries().size());
+      var btc = snapshot.getSeries().get(0);
+      assertEquals("BTC", btc.getSymbol());
+      assertArrayEquals(timestamps, btc.getTimestamps());
+      assertArrayEquals(prices, btc.getPrices());
+      assertEquals(100L, snapshot.getSeries().get(1).summarize(0, 20).getMinPrice());
+      assertEquals(0, snapshot.getSeries().get(2).size());
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  void testRead_rejectsCorruptPrices() throws IOException {
+    var series = List.of(PriceSeries.empty("BTC").merge(new long[] {10, 20}, new long[] {300, 100}, 2));
+    var path = Files.createTempFile("price-store", ".snapshot");
+    try {
+      PriceStoreSnapshot.write(path, series, Map.of());
+      try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        // the first price, right after the header and the two timestamps
+        channel.write(ByteBuffer.wrap(new byte[] {1}), 8 + 2 * Long.BYTES + 7);
+      }
+
+      assertThrows(IOException.class, () -> PriceStoreSnapshot.read(path));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  void testRead_rejectsTruncatedFile() throws IOException {
+    var path = Files.createTempFile("price-store", ".snapshot");
+    try {
+      PriceStoreSnapshot.write(path, List.of(PriceSeries.empty("BTC")), Map.of());
+      try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        channel.truncate(channel.size() - 1);
+      }
+
+      assertThrows(IOException.class, () -> PriceStoreSnapshot.read(path));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  void testRead_rejectsOversizeDirectory() throws IOException {
+    var path = Files.createTempFile("price-store", ".snapshot");
+    try {
+      PriceStoreSnapshot.write(path, List.of(), Map.of());
+      try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        var trailer = ByteBuffer.allocate(2 * Long.BYTES + Integer.BYTES);
+        channel.read(trailer, channel.size() - trailer.capacity());
+        // a sparse file whose directory spans more than Integer.MAX_VALUE bytes
+        channel.write(trailer.putLong(0, 8).flip(), 3L * 1024 * 1024 * 1024);
+      }
+
+      assertThrows(IOException.class, () -> PriceStoreSnapshot.read(path));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+}
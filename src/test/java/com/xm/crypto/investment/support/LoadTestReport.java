@@ -0,0 +1,110 @@
+package com.xm.crypto.investment.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Machine-readable result of a load test run: throughput and latency percentiles per scenario.
+ * A report written by one run is the baseline the next runs are compared with.
+ */
+@Data
+@NoArgsConstructor
+public class LoadTestReport {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  private int symbols;
+  private long ticks;
+  private int concurrency;
+  private List<Scenario> scenarios = new ArrayList<>();
+
+  public LoadTestReport(int symbols, long ticks, int concurrency) {
+    this.symbols = symbols;
+    this.ticks = ticks;
+    this.concurrency = concurrency;
+  }
+
+  public static LoadTestReport read(Path file) throws IOException {
+    return MAPPER.readValue(file.toFile(), LoadTestReport.class);
+  }
+
+  public void write(Path file) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    MAPPER.writeValue(file.toFile(), this);
+  }
+
+  /**
+   * Lists the scenarios whose p50 or p99 latency grew, or whose throughput dropped, by more than
+   * maxRegression (e.g. 0.25 for 25%) compared with the same scenario of the baseline.
+   *
+   * @return one description per regression, empty when there is none
+   */
+  public List<String> regressionsAgainst(LoadTestReport baseline, double maxRegression) {
+    var regressions = new ArrayList<String>();
+    for (Scenario scenario : scenarios) {
+      for (Scenario base : baseline.getScenarios()) {
+        if (!base.getName().equals(scenario.getName())) {
+          continue;
+        }
+        if (scenario.getP50Millis() > base.getP50Millis() * (1 + maxRegression)) {
+          regressions.add(String.format("%s p50 %.2f ms > baseline %.2f ms", scenario.getName(), scenario.getP50Millis(), base.getP50Millis()));
+        }
+        if (scenario.getP99Millis() > base.getP99Millis() * (1 + maxRegression)) {
+          regressions.add(String.format("%s p99 %.2f ms > baseline %.2f ms", scenario.getName(), scenario.getP99Millis(), base.getP99Millis()));
+        }
+        if (scenario.getRequestsPerSecond() < base.getRequestsPerSecond() * (1 - maxRegression)) {
+          regressions.add(String.format("%s %.1f req/s < baseline %.1f req/s", scenario.getName(),
+            scenario.getRequestsPerSecond(), base.getRequestsPerSecond()));
+        }
+      }
+    }
+    return regressions;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Scenario {
+    private String name;
+    private int requests;
+    private int errors;
+    private double requestsPerSecond;
+    private double p50Millis;
+    private double p99Millis;
+    private double p999Millis;
+    private double maxMillis;
+
+    /**
+     * Summarizes the latencies of a scenario.
+     *
+     * @param latencies    latency of every request in nanoseconds
+     * @param elapsedNanos wall-clock time of the scenario
+     */
+    public static Scenario of(String name, long[] latencies, int errors, long elapsedNanos) {
+      var sorted = latencies.clone();
+      Arrays.sort(sorted);
+      return new Scenario(name, sorted.length, errors, sorted.length * 1e9 / elapsedNanos,
+        percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+        sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(quantile * sorted.length);
+      return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.xm.crypto.investment.support;
+
+import com.xm.crypto.investment.cache.CryptoCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * In-process stand-in for the Redis backed {@link CryptoCache}, so tests can run without a Redis server.
+ * Values never expire, concurrent misses of a key are computed once.
+ */
+public class LocalCryptoCache extends CryptoCache {
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+
+  public LocalCryptoCache(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+    super(redisTemplate, meterRegistry, 0, Duration.ZERO, "local-crypto-cache", Duration.ZERO, Duration.ZERO);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T getOrLoad(String key, Duration ttl, Supplier<T> loader) {
+    var load = new CompletableFuture<Object>();
+    var existing = values.putIfAbsent(key, load);
+    if (existing != null) {
+      return (T) join(existing);
+    }
+    try {
+      load.complete(loader.get());
+    } catch (RuntimeException e) {
+      values.remove(key, load);
+      load.completeExceptionally(e);
+    }
+    return (T) join(load);
+  }
+
+  @Override
+  public Object getIfPresent(String key) {
+    var value = values.get(key);
+    return value != null && value.isDone() && !value.isCompletedExceptionally() ? value.join() : null;
+  }
+
+  @Override
+  public void invalidateAll() {
+    values.clear();
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    values.clear();
+  }
+
+  private static Object join(CompletableFuture<Object> value) {
+    try {
+      return value.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package com.xm.crypto.investment.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic {@code <SYMBOL>_values.csv} price files in the format of src/main/resources/prices,
+ * for benchmarks and load tests. Prices follow a seeded random walk with 2 decimals, so the same
+ * arguments always produce the same files.
+ *
+ * <p>Usage: {@code PriceFileGenerator <directory> [symbols=5] [rowsPerSymbol=1000] [intervalMinutes=60]}
+ */
+public final class PriceFileGenerator {
+
+  public static final long FIRST_TIMESTAMP = 1641009600000L;
+
+  private final int symbolCount;
+  private final int rowsPerSymbol;
+  private final long intervalMillis;
+  private final long seed;
+
+  public PriceFileGenerator(int symbolCount, int rowsPerSymbol, long intervalMillis, long seed) {
+    this.symbolCount = symbolCount;
+    this.rowsPerSymbol = rowsPerSymbol;
+    this.intervalMillis = intervalMillis;
+    this.seed = seed;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: PriceFileGenerator <directory> [symbols] [rowsPerSymbol] [intervalMinutes]");
+      System.exit(1);
+    }
+    var generator = new PriceFileGenerator(
+      args.length > 1 ? Integer.parseInt(args[1]) : 5,
+      args.length > 2 ? Integer.parseInt(args[2]) : 1000,
+      (args.length > 3 ? Long.parseLong(args[3]) : 60) * 60_000L,
+      42);
+    var files = generator.writeFiles(Path.of(args[0]));
+    System.out.printf("Generated %d price files in %s%n", files.size(), args[0]);
+  }
+
+  /**
+   * Returns the symbol of the given index: SYM0000, SYM0001, ...
+   */
+  public static String symbol(int index) {
+    return String.format("SYM%04d", index);
+  }
+
+  /**
+   * Writes one price file per symbol into the directory, creating it if needed.
+   *
+   * @return written files
+   */
+  public List<Path> writeFiles(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    var files = new ArrayList<Path>(symbolCount);
+    for (int i = 0; i < symbolCount; i++) {
+      var file = directory.resolve(symbol(i) + "_values.csv");
+      try (var writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+        write(writer, i);
+      }
+      files.add(file);
+    }
+    return files;
+  }
+
+  /**
+   * Returns the content of a single file holding the prices of all symbols, symbol after symbol.
+   */
+  public byte[] toBytes() {
+    var csv = new StringBuilder(symbolCount * rowsPerSymbol * 32);
+    csv.append("timestamp,symbol,price\n");
+    for (int i = 0; i < symbolCount; i++) {
+      appendRows(csv, i);
+    }
+    return csv.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private void write(BufferedWriter writer, int symbolIndex) throws IOException {
+    var csv = new StringBuilder(rowsPerSymbol * 32);
+    csv.append("timestamp,symbol,price\n");
+    appendRows(csv, symbolIndex);
+    writer.append(csv);
+  }
+
+  private void appendRows(StringBuilder csv, int symbolIndex) {
+    var random = new Random(seed * 31 + symbolIndex);
+    var symbol = symbol(symbolIndex);
+    // cents, starting anywhere from 0.01 to 50000
+    long price = 1 + random.nextInt(5_000_000);
+    for (int row = 0; row < rowsPerSymbol; row++) {
+      price = Math.max(1, price + Math.round(random.nextGaussian() * price * 0.01));
+      csv.append(FIRST_TIMESTAMP + row * intervalMillis).append(',').append(symbol).append(',')
+        .append(price / 100).append('.');
+      long cents = price % 100;
+      if (cents < 10) {
+        csv.append('0');
+      }
+      csv.append(cents).append('\n');
+    }
+  }
+}